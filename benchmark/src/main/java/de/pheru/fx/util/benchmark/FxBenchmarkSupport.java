@@ -0,0 +1,73 @@
+package de.pheru.fx.util.benchmark;
+
+import com.sun.javafx.application.PlatformImpl;
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+public final class FxBenchmarkSupport {
+
+    private FxBenchmarkSupport() {
+        //Utility-Class
+    }
+
+    public static void startFx() {
+        PlatformImpl.startup(() -> {
+        });
+        //Zwischen den Benchmarks werden alle Stages geschlossen
+        Platform.setImplicitExit(false);
+    }
+
+    public static void stopFx() {
+        Platform.exit();
+    }
+
+    public static <T> T onFxThread(final Callable<T> callable) throws Exception {
+        if (Platform.isFxApplicationThread()) {
+            return callable.call();
+        }
+        final FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        try {
+            return task.get();
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        //Mehrfach aufräumen, damit auch über Finalizer/Referenzen freigegebener Speicher erfasst ist
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static int intProperty(final String key, final int defaultValue) {
+        return Integer.parseInt(System.getProperty(key, String.valueOf(defaultValue)));
+    }
+
+    public static double doubleProperty(final String key, final double defaultValue) {
+        return Double.parseDouble(System.getProperty(key, String.valueOf(defaultValue)));
+    }
+
+    public static int[] intListProperty(final String key, final String defaultValue) {
+        final String[] values = System.getProperty(key, defaultValue).split(",");
+        final int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Integer.parseInt(values[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,201 @@
+package de.pheru.fx.util.benchmark.focus;
+
+import de.pheru.fx.util.focus.FocusTraversal;
+import de.pheru.fx.util.focus.FocusTraversalGroup;
+import javafx.event.Event;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+
+import java.util.Random;
+
+import static de.pheru.fx.util.benchmark.FxBenchmarkSupport.*;
+
+/**
+ * Headless benchmark of the focus traversal on generated scene graphs. Run with Monocle, e.g. after installing
+ * pherufx-util: {@code mvn -f benchmark/pom.xml package exec:exec}.
+ * <p>
+ * System properties: {@code benchmark.sizes} (comma separated node counts), {@code benchmark.inactiveRatio} (share of
+ * hidden or disabled nodes), {@code benchmark.iterations} and {@code benchmark.warmupIterations}.
+ */
+public final class FocusTraversalBenchmark {
+
+    private static final KeyEvent TAB = new KeyEvent(KeyEvent.KEY_PRESSED, "", "", KeyCode.TAB, false, false, false, false);
+    private static final int COLUMNS = 50;
+
+    private final int size;
+    private final double inactiveRatio;
+    private final int iterations;
+    private final int warmupIterations;
+
+    private FocusTraversalBenchmark(final int size, final double inactiveRatio, final int iterations, final int warmupIterations) {
+        this.size = size;
+        this.inactiveRatio = inactiveRatio;
+        this.iterations = iterations;
+        this.warmupIterations = warmupIterations;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int[] sizes = intListProperty("benchmark.sizes", "1000,10000,50000");
+        final double inactiveRatio = doubleProperty("benchmark.inactiveRatio", 0.3);
+        final int iterations = intProperty("benchmark.iterations", 2000);
+        final int warmupIterations = intProperty("benchmark.warmupIterations", 500);
+
+        startFx();
+        try {
+            System.out.printf("%-40s %10s %15s%n", "Benchmark", "Nodes", "Result");
+            for (final int size : sizes) {
+                final FocusTraversalBenchmark benchmark = new FocusTraversalBenchmark(size, inactiveRatio, iterations, warmupIterations);
+                print("group TAB (dispatch NODE) [ns/op]", size, benchmark.groupTab(FocusTraversal.DispatchMode.NODE));
+                print("group TAB (dispatch SCENE) [ns/op]", size, benchmark.groupTab(FocusTraversal.DispatchMode.SCENE));
+                print("single traversal TAB [ns/op]", size, benchmark.singleTraversalTab());
+                print("group construction [ns/node]", size, benchmark.groupConstruction());
+                print("group teardown [ns/node]", size, benchmark.groupTeardown());
+                print("retained heap per node [bytes]", size, benchmark.retainedHeapPerNode());
+            }
+        } finally {
+            FocusTraversal.setDispatchMode(FocusTraversal.DispatchMode.NODE);
+            stopFx();
+        }
+    }
+
+    private static void print(final String name, final int size, final double result) {
+        System.out.printf("%-40s %10d %15.1f%n", name, size, result);
+    }
+
+    private double groupTab(final FocusTraversal.DispatchMode dispatchMode) throws Exception {
+        return onFxThread(() -> {
+            FocusTraversal.setDispatchMode(dispatchMode);
+            final Node[] nodes = createNodes();
+            final Stage stage = show(nodes);
+            if (dispatchMode == FocusTraversal.DispatchMode.SCENE) {
+                //Im Modus NODE würde der Filter jeden TAB zusätzlich verteuern und den Vergleich verfälschen
+                FocusTraversal.installSceneDispatcher(stage.getScene());
+            }
+            final FocusTraversalGroup group = new FocusTraversalGroup("benchmark", nodes);
+            try {
+                return timeTabs(stage.getScene());
+            } finally {
+                FocusTraversalGroup.removeFocusTraversalGroup(group.getName());
+                stage.close();
+            }
+        });
+    }
+
+    private double singleTraversalTab() throws Exception {
+        return onFxThread(() -> {
+            FocusTraversal.setDispatchMode(FocusTraversal.DispatchMode.NODE);
+            final Node[] nodes = createNodes();
+            final Stage stage = show(nodes);
+            for (int i = 0; i < nodes.length; i++) {
+                FocusTraversal.setSingleFocusTraversalForNode(nodes[i], nodes[(i + 1) % nodes.length],
+                        nodes[(i - 1 + nodes.length) % nodes.length]);
+            }
+            try {
+                return timeTabs(stage.getScene());
+            } finally {
+                stage.close();
+            }
+        });
+    }
+
+    private double groupConstruction() throws Exception {
+        return onFxThread(() -> {
+            final Node[] nodes = createNodes();
+            final Stage stage = show(nodes);
+            long total = 0;
+            for (int i = 0; i < 5; i++) {
+                final long start = System.nanoTime();
+                final FocusTraversalGroup group = new FocusTraversalGroup("benchmark", nodes);
+                total += System.nanoTime() - start;
+                FocusTraversalGroup.removeFocusTraversalGroup(group.getName());
+            }
+            stage.close();
+            return (double) total / 5 / size;
+        });
+    }
+
+    private double groupTeardown() throws Exception {
+        return onFxThread(() -> {
+            final Node[] nodes = createNodes();
+            final Stage stage = show(nodes);
+            long total = 0;
+            for (int i = 0; i < 5; i++) {
+                final FocusTraversalGroup group = new FocusTraversalGroup("benchmark", nodes);
+                final long start = System.nanoTime();
+                FocusTraversalGroup.removeFocusTraversalGroup(group.getName());
+                total += System.nanoTime() - start;
+            }
+            stage.close();
+            return (double) total / 5 / size;
+        });
+    }
+
+    private double retainedHeapPerNode() throws Exception {
+        final Node[] nodes = onFxThread(this::createNodes);
+        final Stage stage = onFxThread(() -> show(nodes));
+        final long before = usedHeap();
+        final FocusTraversalGroup group = onFxThread(() -> new FocusTraversalGroup("benchmark", nodes));
+        final long after = usedHeap();
+        onFxThread(() -> {
+            FocusTraversalGroup.removeFocusTraversalGroup(group.getName());
+            stage.close();
+            return null;
+        });
+        return (double) (after - before) / size;
+    }
+
+    private double timeTabs(final Scene scene) {
+        for (int i = 0; i < warmupIterations; i++) {
+            tab(scene);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            tab(scene);
+        }
+        return (double) (System.nanoTime() - start) / iterations;
+    }
+
+    private static void tab(final Scene scene) {
+        final Node focusOwner = scene.getFocusOwner();
+        Event.fireEvent(focusOwner != null ? focusOwner : scene.getRoot(), TAB.copyFor(null, null));
+    }
+
+    private Node[] createNodes() {
+        final Random random = new Random(size);
+        final Node[] nodes = new Node[size];
+        for (int i = 0; i < size; i++) {
+            final Region region = new Region();
+            region.setFocusTraversable(true);
+            region.resizeRelocate((i % COLUMNS) * 20, (i / COLUMNS) * 20, 18, 18);
+            if (random.nextDouble() < inactiveRatio) {
+                if (random.nextBoolean()) {
+                    region.setVisible(false);
+                } else {
+                    region.setDisable(true);
+                }
+            }
+            nodes[i] = region;
+        }
+        return nodes;
+    }
+
+    private static Stage show(final Node[] nodes) {
+        final Pane root = new Pane(nodes);
+        final Stage stage = new Stage();
+        stage.setScene(new Scene(root, 1000, 800));
+        stage.show();
+        stage.requestFocus();
+        for (final Node node : nodes) {
+            if (node.isVisible() && !node.isDisabled()) {
+                node.requestFocus();
+                break;
+            }
+        }
+        return stage;
+    }
+}
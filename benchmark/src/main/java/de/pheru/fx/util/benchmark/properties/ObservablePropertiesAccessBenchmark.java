@@ -0,0 +1,136 @@
+package de.pheru.fx.util.benchmark.properties;
+
+import de.pheru.fx.util.benchmark.properties.PropertiesBenchmarkSupport.Item;
+import de.pheru.fx.util.properties.ObservableProperties;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the typed getters per key: the first access creates the property from the stored value, repeated
+ * accesses return the existing property.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ObservablePropertiesAccessBenchmark {
+
+    private static final int BATCH = 100;
+    private static final Item DEFAULT_ITEM = new Item(0, "Default");
+
+    @State(Scope.Thread)
+    public static class Store {
+
+        @Param({"1000", "100000", "1000000"})
+        public int keyCount;
+
+        @Param({"text", "lazy", "binary"})
+        public String storage;
+
+        @Param({"string", "boolean", "integer", "long", "float", "double", "object"})
+        public String type;
+
+        private Path path;
+        String[] keys;
+        ObservableProperties properties;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void createStore() throws IOException {
+            path = PropertiesBenchmarkSupport.createStore(storage, keyCount);
+            final List<String> typeKeys = PropertiesBenchmarkSupport.keys(type, keyCount);
+            keys = typeKeys.toArray(new String[typeKeys.size()]);
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteStore() throws IOException {
+            PropertiesBenchmarkSupport.delete(path);
+        }
+
+        String nextKey() {
+            final String key = keys[cursor];
+            cursor = (cursor + 1) % keys.length;
+            return key;
+        }
+
+        void reload() throws IOException {
+            properties = PropertiesBenchmarkSupport.load(storage, path);
+            cursor = 0;
+        }
+    }
+
+    /**
+     * Store in which each key is accessed only once, reloaded before its keys run out.
+     */
+    @State(Scope.Thread)
+    public static class FreshStore extends Store {
+
+        private int accessed;
+
+        @Setup(Level.Invocation)
+        public void reloadIfUsedUp() throws IOException {
+            if (properties == null || accessed + BATCH > keys.length) {
+                reload();
+                accessed = 0;
+            }
+            accessed += BATCH;
+        }
+    }
+
+    /**
+     * Store in which all properties of the type already exist.
+     */
+    @State(Scope.Thread)
+    public static class MaterializedStore extends Store {
+
+        @Setup(Level.Iteration)
+        public void materialize() throws IOException {
+            //Erst hier, weil die Trial-Setups der Oberklasse nicht garantiert vorher laufen
+            if (properties == null) {
+                reload();
+                for (int i = 0; i < keys.length; i++) {
+                    access(this, nextKey());
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void firstAccess(final FreshStore store, final Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(access(store, store.nextKey()));
+        }
+    }
+
+    @Benchmark
+    public Object repeatedAccess(final MaterializedStore store) {
+        return access(store, store.nextKey());
+    }
+
+    private static Object access(final Store store, final String key) {
+        final ObservableProperties properties = store.properties;
+        switch (store.type) {
+            case "string":
+                return properties.stringProperty(key, "");
+            case "boolean":
+                return properties.booleanProperty(key, false);
+            case "integer":
+                return properties.integerProperty(key, 0);
+            case "long":
+                return properties.longProperty(key, 0L);
+            case "float":
+                return properties.floatProperty(key, 0F);
+            case "double":
+                return properties.doubleProperty(key, 0.0);
+            default:
+                return properties.objectProperty(key, DEFAULT_ITEM);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package de.pheru.fx.util.benchmark.properties;
+
+import de.pheru.fx.util.properties.ObservableProperties;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ObservableProperties#load(String)} per storage and store size.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ObservablePropertiesLoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int keyCount;
+
+    @Param({"text", "lazy", "binary"})
+    public String storage;
+
+    private Path store;
+
+    @Setup(Level.Trial)
+    public void createStore() throws IOException {
+        store = PropertiesBenchmarkSupport.createStore(storage, keyCount);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        PropertiesBenchmarkSupport.delete(store);
+    }
+
+    @Benchmark
+    public ObservableProperties load() throws IOException {
+        return PropertiesBenchmarkSupport.load(storage, store);
+    }
+}
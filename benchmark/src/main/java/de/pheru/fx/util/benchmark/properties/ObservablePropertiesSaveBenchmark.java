@@ -0,0 +1,50 @@
+package de.pheru.fx.util.benchmark.properties;
+
+import de.pheru.fx.util.properties.ObservableProperties;
+import javafx.beans.property.IntegerProperty;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link ObservableProperties#save(String)} after one property changed. Run with {@code -prof gc} for the
+ * allocation per save ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ObservablePropertiesSaveBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int keyCount;
+
+    @Param({"text", "lazy", "binary", "journal"})
+    public String storage;
+
+    private Path store;
+    private ObservableProperties properties;
+    private IntegerProperty changedProperty;
+
+    @Setup(Level.Trial)
+    public void createStore() throws IOException {
+        store = PropertiesBenchmarkSupport.createStore(storage, keyCount);
+        properties = PropertiesBenchmarkSupport.load(storage, store);
+        changedProperty = properties.integerProperty(PropertiesBenchmarkSupport.keys("integer", keyCount).get(0), 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        PropertiesBenchmarkSupport.delete(store);
+    }
+
+    @Benchmark
+    public void save() throws IOException {
+        changedProperty.set(changedProperty.get() + 1);
+        properties.save("benchmark");
+    }
+}
@@ -0,0 +1,136 @@
+package de.pheru.fx.util.benchmark.properties;
+
+import de.pheru.fx.util.properties.*;
+import javafx.util.StringConverter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Generates stores with keys of all supported types and creates the storages to compare.
+ */
+public final class PropertiesBenchmarkSupport {
+
+    static final String[] TYPES = {"string", "boolean", "integer", "long", "float", "double", "object"};
+
+    private PropertiesBenchmarkSupport() {
+        //Utility-Class
+    }
+
+    /**
+     * Writes a store with the given number of keys, evenly spread over {@link #TYPES}, in the format of the given
+     * storage and returns its path.
+     */
+    public static Path createStore(final String storage, final int keyCount) throws IOException {
+        final Path directory = Files.createTempDirectory("pherufx-properties-benchmark");
+        final Path textFile = directory.resolve("store.properties");
+        try (final BufferedWriter writer = Files.newBufferedWriter(textFile, StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < keyCount; i++) {
+                final String type = TYPES[i % TYPES.length];
+                writer.write(key(type, i / TYPES.length));
+                writer.write('=');
+                writer.write(value(type, i / TYPES.length));
+                writer.newLine();
+            }
+        }
+        if (!"binary".equals(storage)) {
+            return textFile;
+        }
+        final Path binaryFile = directory.resolve("store.bin");
+        BinaryPropertiesStorage.importText(textFile, binaryFile);
+        return binaryFile;
+    }
+
+    public static List<String> keys(final String type, final int keyCount) {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < keyCount; i++) {
+            if (TYPES[i % TYPES.length].equals(type)) {
+                keys.add(key(type, i / TYPES.length));
+            }
+        }
+        return keys;
+    }
+
+    public static PropertiesStorage createStorage(final String storage) {
+        switch (storage) {
+            case "text":
+                return new TextPropertiesStorage();
+            case "lazy":
+                return new LazyTextPropertiesStorage();
+            case "binary":
+                return new BinaryPropertiesStorage();
+            case "journal":
+                return new JournalPropertiesStorage();
+            default:
+                throw new IllegalArgumentException("Unknown storage \"" + storage + "\"!");
+        }
+    }
+
+    public static ObservableProperties load(final String storage, final Path store) throws IOException {
+        final ObservableProperties observableProperties = new ObservableProperties(createStorage(storage));
+        observableProperties.registerConverter(Item.class, new ItemConverter());
+        observableProperties.load(store.toString());
+        return observableProperties;
+    }
+
+    public static void delete(final Path store) throws IOException {
+        try (final Stream<Path> files = Files.list(store.getParent())) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(store.getParent());
+    }
+
+    private static String key(final String type, final int index) {
+        return "benchmark." + type + "." + index;
+    }
+
+    private static String value(final String type, final int index) {
+        switch (type) {
+            case "string":
+                return "Value number " + index;
+            case "boolean":
+                return String.valueOf(index % 2 == 0);
+            case "integer":
+            case "long":
+                return String.valueOf(index);
+            case "float":
+            case "double":
+                return index + ".25";
+            default:
+                return index + "-Item";
+        }
+    }
+
+    public static final class Item {
+
+        final int number;
+        final String name;
+
+        public Item(final int number, final String name) {
+            this.number = number;
+            this.name = name;
+        }
+    }
+
+    private static final class ItemConverter extends StringConverter<Item> {
+
+        @Override
+        public String toString(final Item item) {
+            return item.number + "-" + item.name;
+        }
+
+        @Override
+        public Item fromString(final String string) {
+            final int separator = string.indexOf('-');
+            return new Item(Integer.parseInt(string.substring(0, separator)), string.substring(separator + 1));
+        }
+    }
+}
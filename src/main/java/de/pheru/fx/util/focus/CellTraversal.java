@@ -0,0 +1,155 @@
+package de.pheru.fx.util.focus;
+
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TablePosition;
+import javafx.scene.control.TableView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * Focus traversal through the cells of virtualized controls. Cells are addressed by row index (and column), only the
+ * cells the VirtualFlow creates for the visible rows are ever materialized. Only the focus model is moved, the
+ * selection stays as it is. A TAB on the last (Shift+TAB on the first) cell is not handled, so that the focus
+ * traversal of the control itself (e.g. a {@link FocusTraversalGroup}) takes over. In dispatch mode
+ * {@link FocusTraversal.DispatchMode#SCENE} the scene dispatcher asks the cell traversal before the traversals
+ * registered for the control.
+ */
+public final class CellTraversal {
+
+    private static final String VIRTUAL_FLOW_SELECTOR = ".virtual-flow";
+
+    private CellTraversal() {
+        //Utility-Class
+    }
+
+    public static void setCellTraversalForTableView(final TableView<?> tableView) {
+        install(tableView, (Node node, KeyEvent event) -> isTraversalKey(event) && tableView.getEditingCell() == null
+                && traverse(tableView, event.isShiftDown()));
+    }
+
+    public static void setCellTraversalForListView(final ListView<?> listView) {
+        install(listView, (Node node, KeyEvent event) -> isTraversalKey(event) && listView.getEditingIndex() < 0
+                && traverse(listView, event.isShiftDown()));
+    }
+
+    private static void install(final Control control, final KeyTraversal traversal) {
+        //Der Filter der Scene (Dispatch-Modus SCENE) läuft vor dem des Controls und fragt daher selbst zuerst die Zellen
+        control.getProperties().put(FocusTraversal.CELL_TRAVERSAL_KEY, traversal);
+        control.addEventFilter(KeyEvent.KEY_PRESSED, (KeyEvent event) -> {
+            if (traversal.traverse(control, event)) {
+                event.consume();
+            }
+        });
+    }
+
+    /**
+     * Moves the focus to the given cell and scrolls it into view. The selection is not changed.
+     */
+    public static <S> void focusCell(final TableView<S> tableView, final int row, final TableColumn<S, ?> column) {
+        scrollToRow(tableView, ".table-row-cell", row);
+        tableView.getFocusModel().focus(row, column);
+        tableView.requestFocus();
+    }
+
+    /**
+     * Moves the focus to the given row and scrolls it into view. The selection is not changed.
+     */
+    public static void focusCell(final ListView<?> listView, final int row) {
+        scrollToRow(listView, ".list-cell", row);
+        listView.getFocusModel().focus(row);
+        listView.requestFocus();
+    }
+
+    private static boolean isTraversalKey(final KeyEvent event) {
+        return event.getCode() == KeyCode.TAB && !event.isControlDown() && !event.isAltDown();
+    }
+
+    private static <S> boolean traverse(final TableView<S> tableView, final boolean backward) {
+        final int rowCount = tableView.getItems() != null ? tableView.getItems().size() : 0;
+        final int columnCount = tableView.getVisibleLeafColumns().size();
+        if (rowCount == 0 || columnCount == 0) {
+            return false;
+        }
+        //getFocusedCell() liefert einen Raw-Type, die Spalte wird daher über indexOf gesucht
+        final TablePosition<?, ?> focusedCell = tableView.getFocusModel().getFocusedCell();
+        int row = focusedCell != null ? focusedCell.getRow() : -1;
+        int column = focusedCell != null && focusedCell.getTableColumn() != null
+                ? tableView.getVisibleLeafColumns().indexOf(focusedCell.getTableColumn()) : -1;
+        if (row < 0) {
+            row = backward ? rowCount : -1;
+            column = backward ? 0 : columnCount - 1;
+        }
+        if (backward) {
+            column--;
+            if (column < 0) {
+                column = columnCount - 1;
+                row--;
+            }
+        } else {
+            column++;
+            if (column >= columnCount) {
+                column = 0;
+                row++;
+            }
+        }
+        if (row < 0 || row >= rowCount) {
+            return false;
+        }
+        focusCell(tableView, row, tableView.getVisibleLeafColumn(column));
+        return true;
+    }
+
+    private static boolean traverse(final ListView<?> listView, final boolean backward) {
+        final int rowCount = listView.getItems() != null ? listView.getItems().size() : 0;
+        final int focusedRow = listView.getFocusModel().getFocusedIndex();
+        final int row;
+        if (focusedRow < 0) {
+            row = backward ? rowCount - 1 : 0;
+        } else {
+            row = backward ? focusedRow - 1 : focusedRow + 1;
+        }
+        if (row < 0 || row >= rowCount) {
+            return false;
+        }
+        focusCell(listView, row);
+        return true;
+    }
+
+    private static void scrollToRow(final Control control, final String cellSelector, final int row) {
+        //Nur die von der VirtualFlow erzeugten Zellen betrachten, um den vollständig sichtbaren Bereich zu ermitteln
+        final Node flow = control.lookup(VIRTUAL_FLOW_SELECTOR);
+        final Bounds viewport = flow != null ? flow.localToScene(flow.getLayoutBounds()) : control.localToScene(control.getLayoutBounds());
+        int firstShown = Integer.MAX_VALUE;
+        int lastShown = -1;
+        for (final Node node : control.lookupAll(cellSelector)) {
+            if (node instanceof IndexedCell && node.isVisible()) {
+                final int index = ((IndexedCell<?>) node).getIndex();
+                //Layout-Bounds: die Bounds in Local enthalten Effekte und sind bei Zellen ohne Inhalt leer
+                final Bounds cellBounds = node.localToScene(node.getLayoutBounds());
+                if (index >= 0 && cellBounds.getMinY() >= viewport.getMinY() && cellBounds.getMaxY() <= viewport.getMaxY()) {
+                    firstShown = Math.min(firstShown, index);
+                    lastShown = Math.max(lastShown, index);
+                }
+            }
+        }
+        if (lastShown < 0 || row < firstShown) {
+            scrollTo(control, row);
+        } else if (row > lastShown) {
+            //Nur um die fehlenden Zeilen weiterscrollen, statt die Zeile an den Anfang zu setzen
+            scrollTo(control, firstShown + row - lastShown);
+        }
+    }
+
+    private static void scrollTo(final Control control, final int row) {
+        if (control instanceof TableView) {
+            ((TableView<?>) control).scrollTo(row);
+        } else if (control instanceof ListView) {
+            ((ListView<?>) control).scrollTo(row);
+        }
+    }
+}
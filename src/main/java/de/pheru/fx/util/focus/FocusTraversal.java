@@ -1,42 +1,104 @@
 package de.pheru.fx.util.focus;
 
+import javafx.event.EventHandler;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.ComboBox;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public final class FocusTraversal {
 
+    /**
+     * How key events reach the registered focus traversals.
+     */
+    public enum DispatchMode {
+        /**
+         * Every registered node gets its own KEY_PRESSED handler.
+         */
+        NODE,
+        /**
+         * Registered nodes only get an entry in their properties. A single KEY_PRESSED filter per scene, installed
+         * with {@link #installSceneDispatcher(Scene)}, looks up the traversals of the focused node and, if none of
+         * them handles the key, of its ancestors, like the handlers of mode NODE.
+         */
+        SCENE
+    }
+
+    static final String TRAVERSAL_KEY = "de.pheru.fx.util.focus.traversal";
+    static final String CELL_TRAVERSAL_KEY = "de.pheru.fx.util.focus.cellTraversal";
+    private static final String DISPATCHER_KEY = "de.pheru.fx.util.focus.dispatcher";
+
+    private static final FocusTraversalMetrics METRICS = new FocusTraversalMetrics();
+    private static final EventHandler<KeyEvent> SCENE_DISPATCHER = FocusTraversal::dispatch;
+    private static volatile DispatchMode dispatchMode = DispatchMode.NODE;
+
     private FocusTraversal() {
         //Utility-Class
     }
 
     public static void setSingleFocusTraversalForNode(final Node node, final Node focusForwardTarget, final Node focusBackwardTarget) {
-        getFocusableForNode(node).addEventHandler(KeyEvent.KEY_PRESSED, (KeyEvent event) -> {
+        register(node, (Node source, KeyEvent event) -> {
             if (event.getCode() == KeyCode.TAB) {
-                event.consume();
+                final long start = METRICS.startTraversal();
                 if (event.isShiftDown() && focusBackwardTarget != null) {
                     getFocusableForNode(focusBackwardTarget).requestFocus();
+                    METRICS.recordTraversal(start, 1, 0);
                 } else if (focusForwardTarget != null) {
                     getFocusableForNode(focusForwardTarget).requestFocus();
+                    METRICS.recordTraversal(start, 1, 0);
                 }
+                return true;
             }
+            return false;
         });
     }
 
     public static void setTabKeyEventHandlerForNode(final Node node, final Runnable tabForward, final Runnable tabBackwards) {
-        getFocusableForNode(node).addEventHandler(KeyEvent.KEY_PRESSED, (KeyEvent event) -> {
+        register(node, (Node source, KeyEvent event) -> {
             if (event.getCode() == KeyCode.TAB) {
-                event.consume();
                 if (event.isShiftDown() && tabBackwards != null) {
                     tabBackwards.run();
                 } else if (tabForward != null) {
                     tabForward.run();
                 }
+                return true;
             }
+            return false;
         });
     }
 
+    /**
+     * Sets the dispatch mode for all subsequently registered nodes. Nodes registered before keep their mode.
+     */
+    public static void setDispatchMode(final DispatchMode dispatchMode) {
+        FocusTraversal.dispatchMode = dispatchMode;
+    }
+
+    public static DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    public static FocusTraversalMetrics getMetrics() {
+        return METRICS;
+    }
+
+    public static void installSceneDispatcher(final Scene scene) {
+        if (!scene.getProperties().containsKey(DISPATCHER_KEY)) {
+            scene.getProperties().put(DISPATCHER_KEY, SCENE_DISPATCHER);
+            scene.addEventFilter(KeyEvent.KEY_PRESSED, SCENE_DISPATCHER);
+        }
+    }
+
+    public static void uninstallSceneDispatcher(final Scene scene) {
+        if (scene.getProperties().remove(DISPATCHER_KEY) != null) {
+            scene.removeEventFilter(KeyEvent.KEY_PRESSED, SCENE_DISPATCHER);
+        }
+    }
+
     protected static Node getFocusableForNode(final Node node) {
         if (node instanceof ComboBox) {
             final ComboBox comboBox = (ComboBox) node;
@@ -46,4 +108,81 @@ public final class FocusTraversal {
         }
         return node;
     }
+
+    /**
+     * Registers the traversal for the node according to the current dispatch mode. Returns the created handler
+     * (mode NODE) or null (mode SCENE).
+     */
+    static EventHandler<KeyEvent> register(final Node node, final KeyTraversal traversal) {
+        METRICS.handlerAdded();
+        if (dispatchMode == DispatchMode.SCENE) {
+            Object traversals = node.getProperties().get(TRAVERSAL_KEY);
+            if (!(traversals instanceof SceneTraversals)) {
+                traversals = new SceneTraversals();
+                node.getProperties().put(TRAVERSAL_KEY, traversals);
+            }
+            ((SceneTraversals) traversals).traversals.add(traversal);
+            return null;
+        }
+        final EventHandler<KeyEvent> handler = (KeyEvent event) -> {
+            if (traversal.traverse(node, event)) {
+                event.consume();
+            }
+        };
+        getFocusableForNode(node).addEventHandler(KeyEvent.KEY_PRESSED, handler);
+        return handler;
+    }
+
+    static void unregister(final Node node, final KeyTraversal traversal, final EventHandler<KeyEvent> handler) {
+        if (handler != null) {
+            getFocusableForNode(node).removeEventHandler(KeyEvent.KEY_PRESSED, handler);
+            METRICS.handlerRemoved();
+        }
+        final Object traversals = node.hasProperties() ? node.getProperties().get(TRAVERSAL_KEY) : null;
+        if (traversals instanceof SceneTraversals && ((SceneTraversals) traversals).traversals.remove(traversal)) {
+            if (((SceneTraversals) traversals).traversals.isEmpty()) {
+                node.getProperties().remove(TRAVERSAL_KEY);
+            }
+            METRICS.handlerRemoved();
+        }
+    }
+
+    private static void dispatch(final KeyEvent event) {
+        //Vom Fokus-Besitzer aus aufwärts, bis eine Traversierung die Taste behandelt (entspricht dem Bubbling der Node-Handler)
+        Node node = event.getTarget() instanceof Node ? (Node) event.getTarget() : null;
+        while (node != null) {
+            if (node.hasProperties()) {
+                //Die Zellen eines Controls vor den Traversierungen des Controls selbst (wie dessen Filter im Modus NODE)
+                final Object cellTraversal = node.getProperties().get(CELL_TRAVERSAL_KEY);
+                if (cellTraversal instanceof KeyTraversal && ((KeyTraversal) cellTraversal).traverse(node, event)) {
+                    event.consume();
+                    return;
+                }
+                final Object traversals = node.getProperties().get(TRAVERSAL_KEY);
+                if (traversals instanceof SceneTraversals && ((SceneTraversals) traversals).traverse(node, event)) {
+                    event.consume();
+                    return;
+                }
+            }
+            node = node.getParent();
+        }
+    }
+
+    /**
+     * Traversals registered for a node in dispatch mode SCENE. Like several KEY_PRESSED handlers of one node, all of
+     * them get the event, even if one has already handled it.
+     */
+    private static final class SceneTraversals {
+
+        private final List<KeyTraversal> traversals = new ArrayList<>(1);
+
+        private boolean traverse(final Node node, final KeyEvent event) {
+            boolean handled = false;
+            //Kopie, da eine Traversierung Nodes an- oder abmelden kann
+            for (final KeyTraversal traversal : traversals.toArray(new KeyTraversal[traversals.size()])) {
+                handled |= traversal.traverse(node, event);
+            }
+            return handled;
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package de.pheru.fx.util.focus;
+
+/**
+ * Target of a key bound in a {@link FocusTraversalPolicy}.
+ */
+public enum FocusTraversalDirection {
+    NEXT,
+    PREVIOUS,
+    FIRST,
+    LAST,
+    /**
+     * Same column, previous row (requires a policy with columns).
+     */
+    UP,
+    /**
+     * Same column, next row (requires a policy with columns).
+     */
+    DOWN
+}
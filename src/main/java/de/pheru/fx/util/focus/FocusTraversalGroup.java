@@ -9,28 +9,45 @@ import javafx.scene.Node;
 import javafx.scene.input.KeyCode;
 import javafx.scene.input.KeyEvent;
 
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
 
 public class FocusTraversalGroup {
 
     private static final String DEFAULT_GROUP_NAME = "FocusTraversalGroup_Default_";
-    private static final Map<String, FocusTraversalGroup> groups = new HashMap<>();
-    private static int defaultCounter = 0;
+    private static final double DEFAULT_ORDER_BUCKET_SIZE = 10.0;
+    private static final String GROUP_KEY = "de.pheru.fx.util.focus.group";
+    private static final String NESTED_GROUP_KEY = "de.pheru.fx.util.focus.nestedGroup";
+    private static final FocusTraversalGroupRegistry registry = new FocusTraversalGroupRegistry();
+    //Zähler der laufenden Traversierung für FocusTraversalMetrics (nur im FX-Thread verwendet)
+    private static int focusAttempts;
+    private static int skippedNodes;
 
     private final ObservableList<Node> nodes = FXCollections.observableArrayList();
     private final Map<Node, EventHandler<KeyEvent>> eventHandlers = FXCollections.observableHashMap();
+    private final FocusTraversalIndex index = new FocusTraversalIndex(this::sceneChanged);
+    private final KeyTraversal traversal = this::traverse;
+    private FocusTraversalSpatialIndex spatialIndex;
+    private boolean orderInvalid = false;
+    private FocusTraversalOrder order = FocusTraversalOrder.INSERTION;
+    private double orderBucketSize = DEFAULT_ORDER_BUCKET_SIZE;
+    private Node container;
+    private boolean cyclic = true;
+    private FocusTraversalPolicy policy = new FocusTraversalPolicy();
+    private int updateDepth = 0;
+    private Set<Node> nodesBeforeUpdate;
 
     private final String name;
 
     public FocusTraversalGroup() {
-        this(DEFAULT_GROUP_NAME + defaultCounter);
-        defaultCounter++;
+        this(registry.nextDefaultName(DEFAULT_GROUP_NAME));
     }
 
     public FocusTraversalGroup(final Node... nodes) {
-        this(DEFAULT_GROUP_NAME + defaultCounter);
-        defaultCounter++;
+        this(registry.nextDefaultName(DEFAULT_GROUP_NAME));
         this.nodes.addAll(nodes);
     }
 
@@ -41,62 +58,282 @@ public class FocusTraversalGroup {
 
     public FocusTraversalGroup(@NamedArg("name") final String name) {
         this.name = name;
-        groups.put(name, this);
+        registry.register(this);
         nodes.addListener((ListChangeListener.Change<? extends Node> c) -> {
+            if (updateDepth > 0) {
+                //Änderungen werden gesammelt in commitUpdate() übernommen
+                return;
+            }
             while (c.next()) {
+                //Bei setAll/set (wasReplaced) sind sowohl wasRemoved als auch wasAdded gesetzt
+                if (c.wasRemoved()) {
+                    for (Node removedNode : c.getRemoved()) {
+                        detach(removedNode);
+                    }
+                }
                 if (c.wasAdded()) {
                     for (Node addedNode : c.getAddedSubList()) {
-                        EventHandler<KeyEvent> handler = createEventHandlerForNode(addedNode);
-                        FocusTraversal.getFocusableForNode(addedNode).addEventHandler(KeyEvent.KEY_PRESSED, handler);
-                        eventHandlers.put(addedNode, handler);
-                    }
-                } else if (c.wasRemoved()) {
-                    for (Node removedNode : c.getRemoved()) {
-                        FocusTraversal.getFocusableForNode(removedNode).removeEventHandler(KeyEvent.KEY_PRESSED, eventHandlers.get(removedNode));
-                        eventHandlers.remove(removedNode);
+                        attach(addedNode);
                     }
                 }
             }
+            updateIndex();
         });
     }
 
-    private EventHandler<KeyEvent> createEventHandlerForNode(final Node node) {
-        return (KeyEvent event) -> {
-            if (event.getCode() == KeyCode.TAB) {
-                event.consume();
-                int index = nodes.indexOf(node);
-                //requestFocus funktioniert nur, wenn die Node sichtbar und nicht disabled ist.
-                //Damit auch bei unsichtbaren/disabled-ten Nodes der Fokus wechselt, müssen diese übersprungen werden.
-                //Um eine eventuell auftretende Endlos-Schleife zu verhindern (wenn alle Nodes unsichtbar oder disabled sind),
-                //wird die Schleife maximal so oft durchlaufen, wie Nodes in der Gruppe vorhanden sind.
-                int tries = 0;
-                Node focusableForNode;
-                do {
-                    if (event.isShiftDown()) { //Shift -> Rückwärts
-                        index--;
-                        if (index < 0) {
-                            index = nodes.size() - 1;
-                        }
-                    } else { //Kein Shift -> Vorwärts
-                        index++;
-                        if (index >= nodes.size()) {
-                            index = 0;
-                        }
-                    }
-                    focusableForNode = FocusTraversal.getFocusableForNode(nodes.get(index));
-                    focusableForNode.requestFocus();
-                    tries++;
-                } while (!focusableForNode.isFocused() && tries < nodes.size());
+    /**
+     * Starts a batch update: changes to {@link #getNodes()} are not processed one by one but all at once by
+     * {@link #commitUpdate()}. Calls may be nested, only the outermost commit applies the changes.
+     */
+    public void beginUpdate() {
+        if (updateDepth == 0) {
+            nodesBeforeUpdate = identitySetOf(nodes);
+        }
+        updateDepth++;
+    }
+
+    public void commitUpdate() {
+        if (updateDepth == 0) {
+            throw new IllegalStateException("No update in progress!");
+        }
+        updateDepth--;
+        if (updateDepth > 0) {
+            return;
+        }
+        final Set<Node> nodesAfterUpdate = identitySetOf(nodes);
+        for (final Node node : nodesBeforeUpdate) {
+            if (!nodesAfterUpdate.contains(node)) {
+                detach(node);
             }
-        };
+        }
+        for (final Node node : nodesAfterUpdate) {
+            if (!nodesBeforeUpdate.contains(node)) {
+                attach(node);
+            }
+        }
+        nodesBeforeUpdate = null;
+        updateIndex();
     }
 
-    private void cleanUp() {
-        for (int i = 0; i < nodes.size(); i++) {
-            nodes.get(i).removeEventHandler(KeyEvent.KEY_PRESSED, eventHandlers.get(nodes.get(i)));
+    /**
+     * Replaces all nodes of this group as one batch update. Nodes contained before and after keep their handlers.
+     */
+    public void replaceAll(final Collection<? extends Node> newNodes) {
+        beginUpdate();
+        try {
+            nodes.setAll(newNodes);
+        } finally {
+            commitUpdate();
+        }
+    }
+
+    private void attach(final Node node) {
+        //Eine Node gehört immer nur zu einer Gruppe
+        final FocusTraversalGroup previousGroup = getFocusTraversalGroup(node);
+        if (previousGroup != null && previousGroup != this) {
+            previousGroup.getNodes().remove(node);
+        }
+        node.getProperties().put(GROUP_KEY, this);
+        final EventHandler<KeyEvent> handler = FocusTraversal.register(node, traversal);
+        if (handler != null) {
+            eventHandlers.put(node, handler);
+        }
+    }
+
+    private void detach(final Node node) {
+        FocusTraversal.unregister(node, traversal, eventHandlers.remove(node));
+        if (node.getProperties().get(GROUP_KEY) == this) {
+            node.getProperties().remove(GROUP_KEY);
+        }
+    }
+
+    private static Set<Node> identitySetOf(final Collection<? extends Node> nodes) {
+        final Set<Node> set = Collections.newSetFromMap(new IdentityHashMap<>(nodes.size() * 2));
+        set.addAll(nodes);
+        return set;
+    }
+
+    private void updateIndex() {
+        if (spatialIndex != null) {
+            spatialIndex.update(nodes);
+            index.update(spatialIndex.getOrderedNodes());
+            orderInvalid = false;
+        } else {
+            index.update(nodes);
+        }
+    }
+
+    private void validateOrder() {
+        //Die räumliche Reihenfolge wird erst beim nächsten Tastendruck übernommen, nicht bei jedem Layout-Durchlauf
+        if (orderInvalid) {
+            orderInvalid = false;
+            index.update(spatialIndex.getOrderedNodes());
+        }
+    }
+
+    private boolean traverse(final Node node, final KeyEvent event) {
+        if (event.isAltDown()) {
+            return false;
+        }
+        if (event.isControlDown()) {
+            //Strg+Tab verlässt eine verschachtelte Gruppe
+            return event.getCode() == KeyCode.TAB && leave(event.isShiftDown());
         }
+        final FocusTraversalDirection direction = policy.getDirection(event.getCode(), event.isShiftDown());
+        if (direction == null) {
+            return false;
+        }
+        final FocusTraversalMetrics metrics = FocusTraversal.getMetrics();
+        final long start = metrics.startTraversal();
+        focusAttempts = 0;
+        skippedNodes = 0;
+        final boolean handled = traverse(node, direction);
+        metrics.recordTraversal(start, focusAttempts, skippedNodes);
+        return handled;
+    }
+
+    private boolean traverse(final Node node, final FocusTraversalDirection direction) {
+        validateOrder();
+        switch (direction) {
+            case NEXT:
+                traverseFrom(node, false);
+                return true;
+            case PREVIOUS:
+                traverseFrom(node, true);
+                return true;
+            case FIRST:
+                return enter(false);
+            case LAST:
+                return enter(true);
+            case UP:
+                return focusTarget(index.up(node), true);
+            case DOWN:
+                return focusTarget(index.down(node), false);
+            default:
+                return false;
+        }
+    }
+
+    private void traverseFrom(final Node node, final boolean backward) {
+        validateOrder();
+        Node current = node;
+        //Verschachtelte Gruppen ohne fokussierbare Nodes werden übersprungen, höchstens einmal rundherum
+        for (int tries = 0; tries < index.size(); tries++) {
+            final Node target = backward ? index.previous(current) : index.next(current);
+            if (target == null) {
+                return;
+            }
+            skippedNodes += index.distance(current, target, backward) - 1;
+            if (!cyclic && isWrapAround(current, target, backward) && leave(backward)) {
+                return;
+            }
+            if (focusTarget(target, backward)) {
+                return;
+            }
+            current = target;
+        }
+    }
+
+    private boolean enter(final boolean backward) {
+        validateOrder();
+        final Node target = backward ? index.last() : index.first();
+        if (target == null) {
+            return false;
+        }
+        if (!focusTarget(target, backward)) {
+            traverseFrom(target, backward);
+        }
+        return true;
+    }
+
+    private boolean focusTarget(final Node target, final boolean backward) {
+        if (target == null) {
+            return false;
+        }
+        final FocusTraversalGroup nestedGroup = getNestedGroup(target);
+        if (nestedGroup != null) {
+            return nestedGroup.enter(backward);
+        }
+        requestFocus(target, backward);
+        return true;
+    }
+
+    private boolean leave(final boolean backward) {
+        final FocusTraversalGroup parentGroup = getParentGroup();
+        if (parentGroup == null) {
+            return false;
+        }
+        parentGroup.traverseFrom(container, backward);
+        return true;
+    }
+
+    private boolean isWrapAround(final Node from, final Node to, final boolean backward) {
+        final int fromIndex = index.indexOf(from);
+        final int toIndex = index.indexOf(to);
+        return backward ? toIndex >= fromIndex : toIndex <= fromIndex;
+    }
+
+    private void requestFocus(final Node target, final boolean backward) {
+        final Node focusableForTarget = FocusTraversal.getFocusableForNode(target);
+        focusableForTarget.requestFocus();
+        focusAttempts++;
+        if (!focusableForTarget.isFocused()) {
+            skippedNodes++;
+            //Der Index kennt nur Sichtbarkeit und Disabled-Status der Nodes selbst, nicht den ihrer Eltern.
+            //Falls der Fokus dadurch trotzdem nicht wechselt, wird ab dem Ziel wie bisher linear weitergesucht.
+            requestFocusLinear(index.indexOf(target), backward);
+        }
+    }
+
+    private void requestFocusLinear(final int startIndex, final boolean backward) {
+        int position = startIndex;
+        //Um eine eventuell auftretende Endlos-Schleife zu verhindern (wenn alle Nodes unsichtbar oder disabled sind),
+        //wird die Schleife maximal so oft durchlaufen, wie Nodes in der Gruppe vorhanden sind.
+        int tries = 1;
+        Node focusableForNode;
+        do {
+            if (backward) { //Shift -> Rückwärts
+                position--;
+                if (position < 0) {
+                    position = index.size() - 1;
+                }
+            } else { //Kein Shift -> Vorwärts
+                position++;
+                if (position >= index.size()) {
+                    position = 0;
+                }
+            }
+            focusableForNode = FocusTraversal.getFocusableForNode(index.nodeAt(position));
+            focusableForNode.requestFocus();
+            focusAttempts++;
+            if (!focusableForNode.isFocused()) {
+                skippedNodes++;
+            }
+            tries++;
+        } while (!focusableForNode.isFocused() && tries < index.size());
+    }
+
+    private void sceneChanged(final boolean inScene) {
+        //Sobald keine Node der Gruppe mehr in einer Scene ist, wird die Gruppe aus der Registry entfernt.
+        //Kommt eine Node wieder in eine Scene, wird sie erneut registriert (sofern der Name nicht neu vergeben wurde).
+        if (inScene) {
+            registry.registerIfAbsent(this);
+        } else {
+            registry.release(this);
+        }
+    }
+
+    private void cleanUp() {
+        //Handler werden über commitUpdate() von FocusTraversal.getFocusableForNode(...) abgemeldet
+        beginUpdate();
         nodes.clear();
+        commitUpdate();
         eventHandlers.clear();
+        index.clear();
+        setContainer(null);
+        if (spatialIndex != null) {
+            spatialIndex.clear();
+        }
     }
 
     public ObservableList<Node> getNodes() {
@@ -107,12 +344,118 @@ public class FocusTraversalGroup {
         return name;
     }
 
+    public FocusTraversalOrder getOrder() {
+        return order;
+    }
+
+    public void setOrder(final FocusTraversalOrder order) {
+        this.order = order;
+        rebuildSpatialIndex();
+    }
+
+    public double getOrderBucketSize() {
+        return orderBucketSize;
+    }
+
+    /**
+     * Sets the height of a row (or the width of a column) for the orders READING and COLUMNS. Nodes whose top (or
+     * left) edge falls into the same bucket are treated as one row (or column).
+     */
+    public void setOrderBucketSize(final double orderBucketSize) {
+        this.orderBucketSize = orderBucketSize;
+        rebuildSpatialIndex();
+    }
+
+    public Node getContainer() {
+        return container;
+    }
+
+    /**
+     * Nests this group into the group of the given container node. Within the parent group the container is a single
+     * stop: reaching it focuses the first (Shift+TAB: the last) node of this group. Ctrl+TAB (Ctrl+Shift+TAB) leaves
+     * this group and continues in the parent group after (before) the container.
+     */
+    public void setContainer(final Node container) {
+        if (this.container != null && this.container.getProperties().get(NESTED_GROUP_KEY) == this) {
+            this.container.getProperties().remove(NESTED_GROUP_KEY);
+        }
+        this.container = container;
+        if (container != null) {
+            container.getProperties().put(NESTED_GROUP_KEY, this);
+        }
+    }
+
+    public FocusTraversalGroup getParentGroup() {
+        return container != null ? getFocusTraversalGroup(container) : null;
+    }
+
+    public boolean isCyclic() {
+        return cyclic;
+    }
+
+    /**
+     * A non cyclic nested group is left with TAB on its last (Shift+TAB on its first) node instead of starting over.
+     */
+    public void setCyclic(final boolean cyclic) {
+        this.cyclic = cyclic;
+    }
+
+    public FocusTraversalPolicy getPolicy() {
+        return policy;
+    }
+
+    public void setPolicy(final FocusTraversalPolicy policy) {
+        this.policy = policy;
+        index.setColumns(policy.getColumns());
+    }
+
+    private void rebuildSpatialIndex() {
+        if (spatialIndex != null) {
+            spatialIndex.clear();
+            spatialIndex = null;
+        }
+        if (order != FocusTraversalOrder.INSERTION) {
+            spatialIndex = new FocusTraversalSpatialIndex(order, orderBucketSize, () -> orderInvalid = true);
+        }
+        updateIndex();
+    }
+
     public static FocusTraversalGroup getFocusTraversalGroup(final String name) {
-        return groups.get(name);
+        return registry.get(name);
+    }
+
+    public static FocusTraversalGroup getFocusTraversalGroup(final Node node) {
+        if (node.hasProperties()) {
+            final Object group = node.getProperties().get(GROUP_KEY);
+            if (group instanceof FocusTraversalGroup) {
+                return (FocusTraversalGroup) group;
+            }
+        }
+        return null;
+    }
+
+    private static FocusTraversalGroup getNestedGroup(final Node node) {
+        if (node.hasProperties()) {
+            final Object group = node.getProperties().get(NESTED_GROUP_KEY);
+            if (group instanceof FocusTraversalGroup) {
+                return (FocusTraversalGroup) group;
+            }
+        }
+        return null;
     }
 
     public static void removeFocusTraversalGroup(final String name) {
-        groups.get(name).cleanUp();
-        groups.remove(name);
+        final FocusTraversalGroup group = registry.remove(name);
+        if (group != null) {
+            group.cleanUp();
+        }
+    }
+
+    public static int getRegisteredGroupCount() {
+        return registry.getGroupCount();
+    }
+
+    public static int getRegisteredNodeCount() {
+        return registry.getNodeCount();
     }
 }
@@ -0,0 +1,92 @@
+package de.pheru.fx.util.focus;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe registry of named {@link FocusTraversalGroup}s. Groups are only referenced weakly, entries of collected
+ * groups are removed on the next access.
+ */
+final class FocusTraversalGroupRegistry {
+
+    private final ConcurrentMap<String, GroupReference> groups = new ConcurrentHashMap<>();
+    private final ReferenceQueue<FocusTraversalGroup> queue = new ReferenceQueue<>();
+    private final AtomicInteger defaultCounter = new AtomicInteger();
+
+    String nextDefaultName(final String prefix) {
+        return prefix + defaultCounter.getAndIncrement();
+    }
+
+    void register(final FocusTraversalGroup group) {
+        expungeCollected();
+        groups.put(group.getName(), new GroupReference(group, queue));
+    }
+
+    void registerIfAbsent(final FocusTraversalGroup group) {
+        expungeCollected();
+        groups.compute(group.getName(), (String name, GroupReference reference) ->
+                reference == null || reference.get() == null ? new GroupReference(group, queue) : reference);
+    }
+
+    void release(final FocusTraversalGroup group) {
+        groups.computeIfPresent(group.getName(), (String name, GroupReference reference) ->
+                reference.get() == group ? null : reference);
+        expungeCollected();
+    }
+
+    FocusTraversalGroup get(final String name) {
+        expungeCollected();
+        final GroupReference reference = groups.get(name);
+        return reference != null ? reference.get() : null;
+    }
+
+    FocusTraversalGroup remove(final String name) {
+        expungeCollected();
+        final GroupReference reference = groups.remove(name);
+        return reference != null ? reference.get() : null;
+    }
+
+    int getGroupCount() {
+        expungeCollected();
+        int count = 0;
+        for (final GroupReference reference : groups.values()) {
+            if (reference.get() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    int getNodeCount() {
+        expungeCollected();
+        int count = 0;
+        for (final GroupReference reference : groups.values()) {
+            final FocusTraversalGroup group = reference.get();
+            if (group != null) {
+                count += group.getNodes().size();
+            }
+        }
+        return count;
+    }
+
+    private void expungeCollected() {
+        Reference<? extends FocusTraversalGroup> reference;
+        while ((reference = queue.poll()) != null) {
+            groups.remove(((GroupReference) reference).name, reference);
+        }
+    }
+
+    private static final class GroupReference extends WeakReference<FocusTraversalGroup> {
+
+        private final String name;
+
+        private GroupReference(final FocusTraversalGroup group, final ReferenceQueue<FocusTraversalGroup> queue) {
+            super(group, queue);
+            this.name = group.getName();
+        }
+    }
+}
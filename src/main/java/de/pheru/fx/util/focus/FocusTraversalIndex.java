@@ -0,0 +1,293 @@
+package de.pheru.fx.util.focus;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.scene.Node;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Positions of the nodes of a {@link FocusTraversalGroup} and the precomputed next/previous (and, for a grid with
+ * columns, up/down) node that is able to take the focus. Structural changes rebuild the index, visibility/disabled/scene changes of single nodes update
+ * only the affected table entries. The scene listener is notified with {@code true} when the first node enters a scene
+ * and with {@code false} when the last node leaves its scene.
+ */
+class FocusTraversalIndex {
+
+    private static final int NONE = -1;
+
+    private final Consumer<Boolean> sceneListener;
+    private final Map<Node, Entry> entries = new IdentityHashMap<>();
+    private Entry[] entryAt = new Entry[0];
+    private Node[] order = new Node[0];
+    private int[] next = new int[0];
+    private int[] previous = new int[0];
+    private int[] up = new int[0];
+    private int[] down = new int[0];
+    private int columns = 0;
+    private int generation = 0;
+    private boolean duplicates = false;
+    private int nodesInScene = 0;
+
+    FocusTraversalIndex(final Consumer<Boolean> sceneListener) {
+        this.sceneListener = sceneListener;
+    }
+
+    void update(final List<? extends Node> nodes) {
+        final int previousNodesInScene = nodesInScene;
+        generation++;
+        duplicates = false;
+        final int size = nodes.size();
+        order = nodes.toArray(new Node[size]);
+        entryAt = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            final Node node = order[i];
+            Entry entry = entries.get(node);
+            if (entry == null) {
+                entry = new Entry(node);
+                entries.put(node, entry);
+                if (entry.inScene) {
+                    nodesInScene++;
+                }
+            }
+            if (entry.generation == generation) {
+                duplicates = true;
+            } else {
+                entry.generation = generation;
+                entry.position = i;
+            }
+            entryAt[i] = entry;
+        }
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.generation != generation) {
+                entry.detach();
+                iterator.remove();
+                if (entry.inScene) {
+                    nodesInScene--;
+                }
+            }
+        }
+        computeTables();
+        fireSceneChange(previousNodesInScene);
+    }
+
+    void clear() {
+        for (final Entry entry : entries.values()) {
+            entry.detach();
+        }
+        entries.clear();
+        final int previousNodesInScene = nodesInScene;
+        nodesInScene = 0;
+        fireSceneChange(previousNodesInScene);
+        entryAt = new Entry[0];
+        order = new Node[0];
+        next = new int[0];
+        previous = new int[0];
+        up = new int[0];
+        down = new int[0];
+    }
+
+    void setColumns(final int columns) {
+        this.columns = columns;
+        computeTables();
+    }
+
+    int size() {
+        return order.length;
+    }
+
+    Node nodeAt(final int position) {
+        return order[position];
+    }
+
+    int indexOf(final Node node) {
+        final Entry entry = entries.get(node);
+        return entry != null ? entry.position : NONE;
+    }
+
+    /**
+     * Number of steps from one node to the other in the given direction, the size of the index if both are the same.
+     */
+    int distance(final Node from, final Node to, final boolean backward) {
+        final int fromIndex = indexOf(from);
+        final int toIndex = indexOf(to);
+        if (fromIndex == NONE || toIndex == NONE) {
+            return 0;
+        }
+        final int distance = backward ? fromIndex - toIndex : toIndex - fromIndex;
+        return distance > 0 ? distance : distance + order.length;
+    }
+
+    Node first() {
+        return order.length > 0 && next[order.length - 1] != NONE ? order[next[order.length - 1]] : null;
+    }
+
+    Node last() {
+        return order.length > 0 && previous[0] != NONE ? order[previous[0]] : null;
+    }
+
+    Node next(final Node node) {
+        return target(next, node);
+    }
+
+    Node previous(final Node node) {
+        return target(previous, node);
+    }
+
+    Node up(final Node node) {
+        return columns > 0 ? target(up, node) : null;
+    }
+
+    Node down(final Node node) {
+        return columns > 0 ? target(down, node) : null;
+    }
+
+    private Node target(final int[] table, final Node node) {
+        final Entry entry = entries.get(node);
+        if (entry == null) {
+            return null;
+        }
+        final int target = table[entry.position];
+        return target != NONE ? order[target] : null;
+    }
+
+    private void computeTables() {
+        final int size = entryAt.length;
+        next = new int[size];
+        previous = new int[size];
+        // Zweimal durchlaufen, damit auch am Listenende/-anfang das zyklisch nächste Ziel gefunden wird
+        int target = NONE;
+        for (int k = 2 * size - 1; k >= 0; k--) {
+            final int i = k % size;
+            if (k < size) {
+                next[i] = target;
+            }
+            if (entryAt[i].focusable) {
+                target = i;
+            }
+        }
+        target = NONE;
+        for (int k = 0; k < 2 * size; k++) {
+            final int i = k % size;
+            if (k >= size) {
+                previous[i] = target;
+            }
+            if (entryAt[i].focusable) {
+                target = i;
+            }
+        }
+        if (columns > 0) {
+            up = new int[size];
+            down = new int[size];
+            for (int i = size - 1; i >= 0; i--) {
+                final int below = i + columns;
+                down[i] = below >= size ? NONE : (entryAt[below].focusable ? below : down[below]);
+            }
+            for (int i = 0; i < size; i++) {
+                final int above = i - columns;
+                up[i] = above < 0 ? NONE : (entryAt[above].focusable ? above : up[above]);
+            }
+        }
+    }
+
+    private void focusableChanged(final Entry entry) {
+        if (duplicates) {
+            computeTables();
+            return;
+        }
+        final int size = entryAt.length;
+        final int position = entry.position;
+        // Nur die Einträge vor (bzw. nach) der Node bis einschließlich der nächsten fokussierbaren Node ändern sich
+        final int nextTarget = entry.focusable ? position : (next[position] == position ? NONE : next[position]);
+        for (int k = 1; k <= size; k++) {
+            final int i = (position - k + size) % size;
+            next[i] = nextTarget;
+            if (i != position && entryAt[i].focusable) {
+                break;
+            }
+        }
+        final int previousTarget = entry.focusable ? position : (previous[position] == position ? NONE : previous[position]);
+        for (int k = 1; k <= size; k++) {
+            final int i = (position + k) % size;
+            previous[i] = previousTarget;
+            if (i != position && entryAt[i].focusable) {
+                break;
+            }
+        }
+        if (columns > 0) {
+            //Im Raster gilt dasselbe spaltenweise und ohne Umlauf
+            final int downTarget = entry.focusable ? position : down[position];
+            for (int i = position - columns; i >= 0; i -= columns) {
+                down[i] = downTarget;
+                if (entryAt[i].focusable) {
+                    break;
+                }
+            }
+            final int upTarget = entry.focusable ? position : up[position];
+            for (int i = position + columns; i < size; i += columns) {
+                up[i] = upTarget;
+                if (entryAt[i].focusable) {
+                    break;
+                }
+            }
+        }
+    }
+
+    private void fireSceneChange(final int previousNodesInScene) {
+        if (previousNodesInScene == 0 && nodesInScene > 0) {
+            sceneListener.accept(true);
+        } else if (previousNodesInScene > 0 && nodesInScene == 0) {
+            sceneListener.accept(false);
+        }
+    }
+
+    private static boolean isFocusable(final Node node) {
+        return node.isVisible() && !node.isDisabled() && node.getScene() != null;
+    }
+
+    private final class Entry implements InvalidationListener {
+
+        private final Node node;
+        private int position;
+        private int generation;
+        private boolean focusable;
+        private boolean inScene;
+
+        private Entry(final Node node) {
+            this.node = node;
+            this.focusable = isFocusable(node);
+            this.inScene = node.getScene() != null;
+            node.visibleProperty().addListener(this);
+            node.disabledProperty().addListener(this);
+            node.sceneProperty().addListener(this);
+        }
+
+        private void detach() {
+            node.visibleProperty().removeListener(this);
+            node.disabledProperty().removeListener(this);
+            node.sceneProperty().removeListener(this);
+        }
+
+        @Override
+        public void invalidated(final Observable observable) {
+            final boolean inScene = node.getScene() != null;
+            if (inScene != this.inScene) {
+                this.inScene = inScene;
+                final int previousNodesInScene = nodesInScene;
+                nodesInScene += inScene ? 1 : -1;
+                fireSceneChange(previousNodesInScene);
+            }
+            final boolean focusable = isFocusable(node);
+            if (focusable != this.focusable) {
+                this.focusable = focusable;
+                focusableChanged(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.pheru.fx.util.focus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the focus traversals done by {@link FocusTraversalGroup} and {@link FocusTraversal}. Recording is
+ * disabled by default and only uses lock-free counters, so it may be left enabled in production. Handlers are always
+ * counted.
+ * <p>
+ * The latency of a traversal is measured from the key event to the completed focus change. Bucket 0 of the latency
+ * histogram counts traversals below 1 µs, bucket n those from 2^(n-1) µs up to 2^n µs. The last bucket also counts
+ * all slower traversals.
+ */
+public final class FocusTraversalMetrics {
+
+    public static final int LATENCY_BUCKETS = 32;
+
+    private volatile boolean enabled = false;
+    private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS);
+    private final LongAdder traversals = new LongAdder();
+    private final LongAdder requestFocusAttempts = new LongAdder();
+    private final LongAccumulator maxRequestFocusAttempts = new LongAccumulator(Math::max, 0);
+    private final LongAdder skippedNodes = new LongAdder();
+    private final AtomicInteger handlers = new AtomicInteger();
+
+    FocusTraversalMetrics() {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getTraversalCount() {
+        return traversals.sum();
+    }
+
+    public long getRequestFocusAttempts() {
+        return requestFocusAttempts.sum();
+    }
+
+    public long getMaxRequestFocusAttempts() {
+        return maxRequestFocusAttempts.get();
+    }
+
+    public double getAverageRequestFocusAttempts() {
+        final long traversalCount = traversals.sum();
+        return traversalCount > 0 ? (double) requestFocusAttempts.sum() / traversalCount : 0.0;
+    }
+
+    /**
+     * Number of nodes passed over because they were invisible, disabled or not part of a scene.
+     */
+    public long getSkippedNodes() {
+        return skippedNodes.sum();
+    }
+
+    /**
+     * Number of registered KEY_PRESSED handlers (dispatch mode NODE) and scene dispatcher entries (dispatch mode
+     * SCENE).
+     */
+    public int getHandlerCount() {
+        return handlers.get();
+    }
+
+    public int getGroupCount() {
+        return FocusTraversalGroup.getRegisteredGroupCount();
+    }
+
+    public long[] getLatencyHistogram() {
+        final long[] histogram = new long[LATENCY_BUCKETS];
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            histogram[i] = latencyHistogram.get(i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the upper bound in µs of the histogram bucket the given percentile (0-100) of all traversals falls into.
+     */
+    public long getLatencyPercentileMicros(final double percentile) {
+        final long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (final long count : histogram) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        final long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long count = 0;
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            count += histogram[i];
+            if (count >= threshold) {
+                return 1L << i;
+            }
+        }
+        return 1L << (LATENCY_BUCKETS - 1);
+    }
+
+    public void reset() {
+        for (int i = 0; i < LATENCY_BUCKETS; i++) {
+            latencyHistogram.set(i, 0);
+        }
+        traversals.reset();
+        requestFocusAttempts.reset();
+        maxRequestFocusAttempts.reset();
+        skippedNodes.reset();
+    }
+
+    long startTraversal() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    void recordTraversal(final long startNanos, final int attempts, final int skipped) {
+        if (!enabled || startNanos == 0L) {
+            return;
+        }
+        final long micros = (System.nanoTime() - startNanos) / 1000L;
+        final int bucket = micros <= 0 ? 0 : Math.min(64 - Long.numberOfLeadingZeros(micros), LATENCY_BUCKETS - 1);
+        latencyHistogram.incrementAndGet(bucket);
+        traversals.increment();
+        requestFocusAttempts.add(attempts);
+        maxRequestFocusAttempts.accumulate(attempts);
+        if (skipped > 0) {
+            skippedNodes.add(skipped);
+        }
+    }
+
+    void handlerAdded() {
+        handlers.incrementAndGet();
+    }
+
+    void handlerRemoved() {
+        handlers.decrementAndGet();
+    }
+}
@@ -0,0 +1,19 @@
+package de.pheru.fx.util.focus;
+
+/**
+ * Order in which a {@link FocusTraversalGroup} traverses its nodes.
+ */
+public enum FocusTraversalOrder {
+    /**
+     * Order of {@link FocusTraversalGroup#getNodes()}.
+     */
+    INSERTION,
+    /**
+     * Row by row from top to bottom, each row from left to right.
+     */
+    READING,
+    /**
+     * Column by column from left to right, each column from top to bottom.
+     */
+    COLUMNS
+}
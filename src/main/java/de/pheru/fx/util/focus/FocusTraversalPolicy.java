@@ -0,0 +1,80 @@
+package de.pheru.fx.util.focus;
+
+import javafx.scene.input.KeyCode;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Key bindings of a {@link FocusTraversalGroup}. Every key (with or without Shift) may be bound to a
+ * {@link FocusTraversalDirection}, the group answers all directions from precomputed tables. For UP/DOWN the nodes
+ * of the group are treated as a grid with the given number of columns, filled row by row.
+ * <p>
+ * Keys pressed together with Ctrl or Alt are never handled by the policy.
+ */
+public class FocusTraversalPolicy {
+
+    private final int columns;
+    private final Map<KeyCode, FocusTraversalDirection> bindings = new EnumMap<>(KeyCode.class);
+    private final Map<KeyCode, FocusTraversalDirection> shiftBindings = new EnumMap<>(KeyCode.class);
+
+    /**
+     * TAB and Shift+TAB only.
+     */
+    public FocusTraversalPolicy() {
+        this(0);
+    }
+
+    public FocusTraversalPolicy(final int columns) {
+        if (columns < 0) {
+            throw new IllegalArgumentException("Columns must not be negative!");
+        }
+        this.columns = columns;
+        bind(KeyCode.TAB, false, FocusTraversalDirection.NEXT);
+        bind(KeyCode.TAB, true, FocusTraversalDirection.PREVIOUS);
+    }
+
+    /**
+     * TAB, Enter (both with Shift backwards), Home and End.
+     */
+    public static FocusTraversalPolicy form() {
+        return new FocusTraversalPolicy()
+                .bind(KeyCode.ENTER, false, FocusTraversalDirection.NEXT)
+                .bind(KeyCode.ENTER, true, FocusTraversalDirection.PREVIOUS)
+                .bind(KeyCode.HOME, false, FocusTraversalDirection.FIRST)
+                .bind(KeyCode.END, false, FocusTraversalDirection.LAST);
+    }
+
+    /**
+     * Like {@link #form()}, additionally the arrow keys move within a grid of the given number of columns.
+     */
+    public static FocusTraversalPolicy grid(final int columns) {
+        return new FocusTraversalPolicy(columns)
+                .bind(KeyCode.ENTER, false, FocusTraversalDirection.NEXT)
+                .bind(KeyCode.ENTER, true, FocusTraversalDirection.PREVIOUS)
+                .bind(KeyCode.HOME, false, FocusTraversalDirection.FIRST)
+                .bind(KeyCode.END, false, FocusTraversalDirection.LAST)
+                .bind(KeyCode.LEFT, false, FocusTraversalDirection.PREVIOUS)
+                .bind(KeyCode.RIGHT, false, FocusTraversalDirection.NEXT)
+                .bind(KeyCode.UP, false, FocusTraversalDirection.UP)
+                .bind(KeyCode.DOWN, false, FocusTraversalDirection.DOWN);
+    }
+
+    public FocusTraversalPolicy bind(final KeyCode keyCode, final boolean shift, final FocusTraversalDirection direction) {
+        (shift ? shiftBindings : bindings).put(keyCode, direction);
+        return this;
+    }
+
+    public FocusTraversalPolicy unbind(final KeyCode keyCode, final boolean shift) {
+        (shift ? shiftBindings : bindings).remove(keyCode);
+        return this;
+    }
+
+    public FocusTraversalDirection getDirection(final KeyCode keyCode, final boolean shift) {
+        return (shift ? shiftBindings : bindings).get(keyCode);
+    }
+
+    public int getColumns() {
+        return columns;
+    }
+}
@@ -0,0 +1,142 @@
+package de.pheru.fx.util.focus;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Sorted index of the nodes of a {@link FocusTraversalGroup} by their position in the scene. Nodes are put into rows
+ * (or columns) of the given bucket size and sorted within. A change of the boundsInParent or of the transform to the
+ * scene (e.g. a moved parent row) of a node only moves this node within the index, the change listener is notified
+ * so that the traversal order can be refreshed when needed.
+ */
+class FocusTraversalSpatialIndex {
+
+    private static final Comparator<Entry> COMPARATOR = (Entry e1, Entry e2) -> {
+        int result = Long.compare(e1.bucket, e2.bucket);
+        if (result == 0) {
+            result = Double.compare(e1.major, e2.major);
+        }
+        if (result == 0) {
+            result = Double.compare(e1.minor, e2.minor);
+        }
+        if (result == 0) {
+            result = Long.compare(e1.sequence, e2.sequence);
+        }
+        return result;
+    };
+
+    private final FocusTraversalOrder order;
+    private final double bucketSize;
+    private final Runnable changeListener;
+    private final Map<Node, Entry> entries = new IdentityHashMap<>();
+    private final TreeSet<Entry> sorted = new TreeSet<>(COMPARATOR);
+    private long sequence = 0;
+    private int generation = 0;
+
+    FocusTraversalSpatialIndex(final FocusTraversalOrder order, final double bucketSize, final Runnable changeListener) {
+        this.order = order;
+        this.bucketSize = bucketSize;
+        this.changeListener = changeListener;
+    }
+
+    void update(final List<? extends Node> nodes) {
+        generation++;
+        for (final Node node : nodes) {
+            Entry entry = entries.get(node);
+            if (entry == null) {
+                entry = new Entry(node);
+                entries.put(node, entry);
+                sorted.add(entry);
+            }
+            entry.generation = generation;
+        }
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.generation != generation) {
+                entry.detach();
+                sorted.remove(entry);
+                iterator.remove();
+            }
+        }
+    }
+
+    List<Node> getOrderedNodes() {
+        final List<Node> orderedNodes = new ArrayList<>(sorted.size());
+        for (final Entry entry : sorted) {
+            orderedNodes.add(entry.node);
+        }
+        return orderedNodes;
+    }
+
+    void clear() {
+        for (final Entry entry : entries.values()) {
+            entry.detach();
+        }
+        entries.clear();
+        sorted.clear();
+    }
+
+    private final class Entry implements InvalidationListener {
+
+        private final Node node;
+        private final long sequence;
+        private int generation;
+        private long bucket;
+        private double major;
+        private double minor;
+
+        private Entry(final Node node) {
+            this.node = node;
+            this.sequence = FocusTraversalSpatialIndex.this.sequence++;
+            computeKey();
+            node.boundsInParentProperty().addListener(this);
+            //Verschiebt sich ein Elternknoten (z.B. eine eingefügte Zeile), ändert sich nur die Transformation zur Scene
+            node.localToSceneTransformProperty().addListener(this);
+        }
+
+        private void detach() {
+            node.boundsInParentProperty().removeListener(this);
+            node.localToSceneTransformProperty().removeListener(this);
+        }
+
+        private void computeKey() {
+            //Die Properties validieren, damit die Listener bei der nächsten Änderung erneut feuern
+            node.getBoundsInParent();
+            node.getLocalToSceneTransform();
+            final Bounds bounds = node.localToScene(node.getBoundsInLocal());
+            if (order == FocusTraversalOrder.COLUMNS) {
+                bucket = (long) Math.floor(bounds.getMinX() / bucketSize);
+                major = bounds.getMinY();
+                minor = bounds.getMinX();
+            } else {
+                bucket = (long) Math.floor(bounds.getMinY() / bucketSize);
+                major = bounds.getMinX();
+                minor = bounds.getMinY();
+            }
+        }
+
+        @Override
+        public void invalidated(final Observable observable) {
+            final long oldBucket = bucket;
+            final double oldMajor = major;
+            final double oldMinor = minor;
+            sorted.remove(this);
+            computeKey();
+            sorted.add(this);
+            if (oldBucket != bucket || oldMajor != major || oldMinor != minor) {
+                changeListener.run();
+            }
+        }
+    }
+}
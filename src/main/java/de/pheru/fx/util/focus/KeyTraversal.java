@@ -0,0 +1,13 @@
+package de.pheru.fx.util.focus;
+
+import javafx.scene.Node;
+import javafx.scene.input.KeyEvent;
+
+/**
+ * Reaction of a registered node to a key event. Returns {@code true} if the event has been handled and has to be
+ * consumed.
+ */
+interface KeyTraversal {
+
+    boolean traverse(Node node, KeyEvent event);
+}
@@ -0,0 +1,158 @@
+package de.pheru.fx.util.properties;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Versioned binary snapshot with length-prefixed UTF-8 keys and typed values. The file starts with the magic number, the format version and the number of entries, followed by the entries in
+ * alphabetical key order: key length, key, value type and the value (length and UTF-8 bytes for Strings).
+ */
+public class BinaryPropertiesStorage implements PropertiesStorage {
+
+    static final int MAGIC = 0x50465850; // "PFXP"
+    static final int VERSION = 1;
+
+    private static final byte STRING = 0;
+    private static final byte BOOLEAN = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte FLOAT = 4;
+    private static final byte DOUBLE = 5;
+
+    /**
+     * Converts a {@code .properties} file into a binary snapshot. All values are stored as Strings.
+     */
+    public static void importText(final Path textFile, final Path binaryFile) throws IOException {
+        final Map<String, Object> values = new HashMap<>();
+        new TextPropertiesStorage().read(textFile, values);
+        new BinaryPropertiesStorage().write(binaryFile, values, values.keySet(), null);
+    }
+
+    /**
+     * Converts a binary snapshot into a {@code .properties} file.
+     */
+    public static void exportText(final Path binaryFile, final Path textFile, final String comments) throws IOException {
+        final Map<String, Object> values = new HashMap<>();
+        new BinaryPropertiesStorage().read(binaryFile, values);
+        new TextPropertiesStorage().write(textFile, values, values.keySet(), comments);
+    }
+
+    @Override
+    public void read(final Path file, final Map<String, Object> values) throws IOException {
+        //Kopie statt Mapping: die Datei kann danach sofort ersetzt werden, auch unter Windows
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary properties file: " + file);
+        }
+        final int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary properties version " + version + ": " + file);
+        }
+        try {
+            final int size = buffer.getInt();
+            byte[] bytes = new byte[256];
+            for (int i = 0; i < size; i++) {
+                int length = readLength(buffer, file);
+                if (length > bytes.length) {
+                    bytes = new byte[length];
+                }
+                buffer.get(bytes, 0, length);
+                final String key = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                final byte type = buffer.get();
+                final Object value;
+                switch (type) {
+                    case STRING:
+                        length = readLength(buffer, file);
+                        if (length > bytes.length) {
+                            bytes = new byte[length];
+                        }
+                        buffer.get(bytes, 0, length);
+                        value = new String(bytes, 0, length, StandardCharsets.UTF_8);
+                        break;
+                    case BOOLEAN:
+                        value = buffer.get() != 0;
+                        break;
+                    case INTEGER:
+                        value = buffer.getInt();
+                        break;
+                    case LONG:
+                        value = buffer.getLong();
+                        break;
+                    case FLOAT:
+                        value = buffer.getFloat();
+                        break;
+                    case DOUBLE:
+                        value = buffer.getDouble();
+                        break;
+                    default:
+                        throw new IOException("Unknown value type " + type + " for key \"" + key + "\": " + file);
+                }
+                values.put(key, value);
+            }
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated binary properties file: " + file, e);
+        }
+    }
+
+    /**
+     * Reads the length of a key or String value and checks that the file contains that many bytes, so that a corrupt
+     * length does not allocate a huge array.
+     */
+    private static int readLength(final ByteBuffer buffer, final Path file) throws IOException {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IOException("Invalid length " + length + " in binary properties file: " + file);
+        }
+        return length;
+    }
+
+    @Override
+    public void write(final Path file, final Map<String, Object> values, final Collection<String> changedKeys,
+                      final String comments) throws IOException {
+        final Map<String, Object> sortedValues = values instanceof SortedMap ? values : new TreeMap<>(values);
+        PropertiesFiles.writeAtomically(file, channel -> {
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(sortedValues.size());
+            for (final Map.Entry<String, Object> entry : sortedValues.entrySet()) {
+                writeString(out, entry.getKey());
+                final Object value = entry.getValue();
+                if (value instanceof Boolean) {
+                    out.writeByte(BOOLEAN);
+                    out.writeBoolean((Boolean) value);
+                } else if (value instanceof Integer) {
+                    out.writeByte(INTEGER);
+                    out.writeInt((Integer) value);
+                } else if (value instanceof Long) {
+                    out.writeByte(LONG);
+                    out.writeLong((Long) value);
+                } else if (value instanceof Float) {
+                    out.writeByte(FLOAT);
+                    out.writeFloat((Float) value);
+                } else if (value instanceof Double) {
+                    out.writeByte(DOUBLE);
+                    out.writeDouble((Double) value);
+                } else {
+                    out.writeByte(STRING);
+                    writeString(out, value.toString());
+                }
+            }
+            out.flush();
+        });
+    }
+
+    private static void writeString(final DataOutputStream out, final String string) throws IOException {
+        final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,102 @@
+package de.pheru.fx.util.properties;
+
+import javafx.application.Platform;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Variant of {@link ObservableProperties} that can be shared between threads:
+ * <ul>
+ * <li>the get methods read the stored values lock-free from any thread,</li>
+ * <li>a property is created only once per key, even if several threads ask for it at the same time,</li>
+ * <li>values set from other threads are applied to the JavaFX properties in batches on the FX thread.</li>
+ * </ul>
+ * Changes of the JavaFX properties are stored immediately, so the get methods always see the current values.
+ */
+public class ConcurrentObservableProperties extends ObservableProperties {
+
+    private final Executor fxExecutor;
+    private final Map<String, Object> pendingUpdates = new ConcurrentHashMap<>();
+    private final AtomicBoolean updateScheduled = new AtomicBoolean(false);
+
+    public ConcurrentObservableProperties() {
+        this(new TextPropertiesStorage());
+    }
+
+    public ConcurrentObservableProperties(final PropertiesStorage storage) {
+        this(storage, Platform::runLater);
+    }
+
+    /**
+     * @param fxExecutor executor of the FX thread, {@link Platform#runLater(Runnable)} by default
+     */
+    public ConcurrentObservableProperties(final PropertiesStorage storage, final Executor fxExecutor) {
+        super(storage, new ConcurrentSkipListMap<>(), new ConcurrentHashMap<>(), true);
+        this.fxExecutor = fxExecutor;
+    }
+
+    /**
+     * Sets the value of the key from any thread. The stored value changes immediately, the property of the key (if
+     * any) is updated on the FX thread together with all other values set until then. The value has to match the type
+     * of the property (e.g. an Integer for an IntegerProperty), otherwise nothing is changed and an
+     * IllegalArgumentException is thrown.
+     */
+    public void set(final String key, final Object value) {
+        Objects.requireNonNull(value, "Value of \"" + key + "\" must not be null!");
+        final RegisteredProperty registeredProperty = getRegisteredProperty(key);
+        if (registeredProperty != null) {
+            registeredProperty.checkValue(key, value);
+        }
+        storeValue(key, value);
+        pendingUpdates.put(key, value);
+        if (updateScheduled.compareAndSet(false, true)) {
+            fxExecutor.execute(this::applyPendingUpdates);
+        }
+    }
+
+    public <T> void set(final ObservablePropertyKey<T> propertyKey, final T value) {
+        set(propertyKey.getKey(), value);
+    }
+
+    public String getString(final String key, final String defaultValue) {
+        final Object storedValue = getStoredValue(key);
+        return storedValue != null ? storedValue.toString() : defaultValue;
+    }
+
+    public boolean getBoolean(final String key, final boolean defaultValue) {
+        return ValueParser.parseBoolean(getStoredValue(key), defaultValue);
+    }
+
+    public int getInteger(final String key, final int defaultValue) {
+        return ValueParser.parseInt(getStoredValue(key), defaultValue);
+    }
+
+    public long getLong(final String key, final long defaultValue) {
+        return ValueParser.parseLong(getStoredValue(key), defaultValue);
+    }
+
+    public float getFloat(final String key, final float defaultValue) {
+        return ValueParser.parseFloat(getStoredValue(key), defaultValue);
+    }
+
+    public double getDouble(final String key, final double defaultValue) {
+        return ValueParser.parseDouble(getStoredValue(key), defaultValue);
+    }
+
+    private void applyPendingUpdates() {
+        //Vor dem Abarbeiten zurücksetzen, damit danach gesetzte Werte erneut eingeplant werden
+        updateScheduled.set(false);
+        for (final String key : pendingUpdates.keySet()) {
+            final Object value = pendingUpdates.remove(key);
+            final RegisteredProperty registeredProperty = getRegisteredProperty(key);
+            if (value != null && registeredProperty != null) {
+                registeredProperty.setValue(value);
+            }
+        }
+    }
+}
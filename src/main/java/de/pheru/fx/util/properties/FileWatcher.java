@@ -0,0 +1,77 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the file of an {@link ObservableProperties} on a daemon thread and reloads it after it was changed. Events
+ * that follow each other within the quiet period (e.g. an editor writing in several steps) cause only one reload.
+ */
+class FileWatcher implements Runnable {
+
+    private static final long QUIET_PERIOD_MILLIS = 100;
+
+    private final ObservableProperties observableProperties;
+    private final Path file;
+    private final Executor fxExecutor;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    FileWatcher(final ObservableProperties observableProperties, final Path file, final Executor fxExecutor) throws IOException {
+        this.observableProperties = observableProperties;
+        this.file = file.toAbsolutePath();
+        this.fxExecutor = fxExecutor;
+        this.watchService = file.getFileSystem().newWatchService();
+        this.file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this, "ObservableProperties-FileWatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    Executor getFxExecutor() {
+        return fxExecutor;
+    }
+
+    void close() {
+        try {
+            watchService.close();
+        } catch (final IOException ignored) {
+            //Der Thread endet trotzdem beim nächsten Zugriff auf den WatchService
+        }
+        thread.interrupt();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (true) {
+                if (!isFileChanged(watchService.take())) {
+                    continue;
+                }
+                WatchKey next;
+                while ((next = watchService.poll(QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isFileChanged(next);
+                }
+                try {
+                    observableProperties.reload(file, fxExecutor);
+                } catch (final IOException | RuntimeException ignored) {
+                    //Datei wird gerade ersetzt oder ist ungültig (z.B. ein fehlerhaftes Unicode-Escape oder abgeschnitten),
+                    //die nächste Änderung löst erneut ein Laden aus
+                }
+            }
+        } catch (final InterruptedException | ClosedWatchServiceException ignored) {
+            //Beobachtung beendet
+        }
+    }
+
+    private boolean isFileChanged(final WatchKey watchKey) {
+        boolean changed = false;
+        for (final WatchEvent<?> event : watchKey.pollEvents()) {
+            changed |= event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context());
+        }
+        watchKey.reset();
+        return changed;
+    }
+}
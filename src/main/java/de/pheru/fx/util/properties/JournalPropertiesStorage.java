@@ -0,0 +1,217 @@
+package de.pheru.fx.util.properties;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.TreeMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Keeps the values in a {@code .properties} snapshot and appends every saved change as a record to a journal next to
+ * it ({@code <file>.journal}), so a save only costs the changed entries. Loading replays the journal over the
+ * snapshot. Once the journal grows past the compaction threshold, a new snapshot is written in the background and the
+ * journal starts over.
+ * <p>
+ * An instance belongs to a single {@link ObservableProperties} and keeps the journal open between saves until it is
+ * closed.
+ */
+public class JournalPropertiesStorage implements PropertiesStorage, Closeable {
+
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 1024 * 1024;
+
+    static final String JOURNAL_SUFFIX = ".journal";
+    static final String COMPACTING_SUFFIX = ".journal.compacting";
+
+    private static final int PUT = 1;
+    private static final int REMOVE = 2;
+
+    private final TextPropertiesStorage snapshotStorage = new TextPropertiesStorage();
+    private final long compactionThreshold;
+    private final Executor executor;
+    private Path file;
+    private DataOutputStream journal;
+    private long journalSize;
+    private CompletableFuture<Void> compaction;
+
+    public JournalPropertiesStorage() {
+        this(DEFAULT_COMPACTION_THRESHOLD, null);
+    }
+
+    /**
+     * @param compactionThreshold journal size in bytes after which a new snapshot is written
+     * @param executor            executor for the compaction, a new daemon thread per compaction if null
+     */
+    public JournalPropertiesStorage(final long compactionThreshold, final Executor executor) {
+        this.compactionThreshold = compactionThreshold;
+        this.executor = executor != null ? executor : (Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, "JournalPropertiesStorage-Compaction");
+            thread.setDaemon(true);
+            thread.start();
+        };
+    }
+
+    @Override
+    public synchronized void read(final Path file, final Map<String, Object> values) throws IOException {
+        awaitCompaction();
+        closeJournal();
+        snapshotStorage.read(file, values);
+        final Path compacting = sibling(file, COMPACTING_SUFFIX);
+        if (Files.exists(compacting)) {
+            replay(compacting, values);
+        }
+        final Path journalFile = sibling(file, JOURNAL_SUFFIX);
+        if (Files.exists(journalFile)) {
+            final long valid = replay(journalFile, values);
+            if (valid < Files.size(journalFile)) {
+                //Unvollständigen Datensatz am Ende (Absturz beim Schreiben) abschneiden, damit angehängt werden kann
+                try (final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                }
+            }
+        }
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void write(final Path file, final Map<String, Object> values, final Collection<String> changedKeys,
+                                   final String comments) throws IOException {
+        if (!file.equals(this.file) || !Files.exists(file)) {
+            awaitCompaction();
+            closeJournal();
+            snapshotStorage.write(file, values, values.keySet(), comments);
+            Files.deleteIfExists(sibling(file, COMPACTING_SUFFIX));
+            Files.deleteIfExists(sibling(file, JOURNAL_SUFFIX));
+            this.file = file;
+            return;
+        }
+        if (journal == null) {
+            final Path journalFile = sibling(file, JOURNAL_SUFFIX);
+            journal = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(journalFile.toFile(), true)));
+            journalSize = Files.size(journalFile);
+        }
+        for (final String key : changedKeys) {
+            final Object value = values.get(key);
+            final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+            if (value == null) {
+                journal.writeByte(REMOVE);
+                writeBytes(keyBytes);
+                journalSize += 1 + 4 + keyBytes.length;
+            } else {
+                final byte[] valueBytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                journal.writeByte(PUT);
+                writeBytes(keyBytes);
+                writeBytes(valueBytes);
+                journalSize += 1 + 4 + keyBytes.length + 4 + valueBytes.length;
+            }
+        }
+        journal.flush();
+        if (journalSize > compactionThreshold && (compaction == null || compaction.isDone())) {
+            startCompaction(values, comments);
+        }
+    }
+
+    /**
+     * Waits for a running compaction and closes the journal.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        awaitCompaction();
+        closeJournal();
+    }
+
+    private void startCompaction(final Map<String, Object> values, final String comments) throws IOException {
+        awaitCompaction();
+        closeJournal();
+        final Path journalFile = sibling(file, JOURNAL_SUFFIX);
+        final Path compacting = sibling(file, COMPACTING_SUFFIX);
+        if (Files.exists(compacting)) {
+            //Eine vorherige Verdichtung ist fehlgeschlagen, ihr Journal muss erhalten bleiben
+            Files.write(compacting, Files.readAllBytes(journalFile), StandardOpenOption.APPEND);
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, compacting, StandardCopyOption.ATOMIC_MOVE);
+        }
+        final Path snapshotFile = file;
+        final Map<String, Object> snapshot = new TreeMap<>(values);
+        compaction = CompletableFuture.runAsync(() -> {
+            try {
+                snapshotStorage.write(snapshotFile, snapshot, snapshot.keySet(), comments);
+                Files.delete(compacting);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    private void awaitCompaction() {
+        if (compaction != null) {
+            try {
+                compaction.join();
+            } catch (final CompletionException ignored) {
+                //Das Journal der Verdichtung bleibt liegen und wird beim Laden weiterhin eingespielt
+            }
+            compaction = null;
+        }
+    }
+
+    private void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        journal.writeInt(bytes.length);
+        journal.write(bytes);
+    }
+
+    /**
+     * Applies the records of the given journal to the values and returns the length of its complete records.
+     */
+    private static long replay(final Path journalFile, final Map<String, Object> values) throws IOException {
+        final long size = Files.size(journalFile);
+        long valid = 0;
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(journalFile)))) {
+            int operation;
+            while ((operation = in.read()) != -1) {
+                final byte[] key = readBytes(in, size);
+                if (operation == PUT) {
+                    final byte[] value = readBytes(in, size);
+                    values.put(new String(key, StandardCharsets.UTF_8), new String(value, StandardCharsets.UTF_8));
+                    valid += 1 + 4 + key.length + 4 + value.length;
+                } else if (operation == REMOVE) {
+                    values.remove(new String(key, StandardCharsets.UTF_8));
+                    valid += 1 + 4 + key.length;
+                } else {
+                    break;
+                }
+            }
+        } catch (final EOFException ignored) {
+            //Unvollständiger letzter Datensatz
+        }
+        return valid;
+    }
+
+    private static byte[] readBytes(final DataInputStream in, final long size) throws IOException {
+        final int length = in.readInt();
+        if (length < 0 || length > size) {
+            throw new EOFException();
+        }
+        final byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static Path sibling(final Path file, final String suffix) {
+        return file.resolveSibling(file.getFileName() + suffix);
+    }
+}
@@ -0,0 +1,117 @@
+package de.pheru.fx.util.properties;
+
+import javafx.application.Platform;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * {@link ObservableProperties} on top of a stack of shared {@link PropertiesLayer}s (e.g. defaults, then a site-wide
+ * file). A key resolves to its own value if it has one, otherwise to the value of the highest layer that contains
+ * it. Only the own values are loaded and saved, so values that equal the layers below are not written. The resolved
+ * layer values are cached per key; a change of a layer invalidates only the changed keys and updates their
+ * properties on the FX thread.
+ */
+public class LayeredObservableProperties extends ObservableProperties {
+
+    private static final Object NONE = new Object();
+
+    private final List<PropertiesLayer> layers;
+    private final Executor fxExecutor;
+    private final Map<String, Object> resolvedValues = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Consumer<Set<String>> layerListener = this::layersChanged;
+
+    /**
+     * @param layers layers below the own values, lowest (e.g. the defaults) first
+     */
+    public LayeredObservableProperties(final List<PropertiesLayer> layers) {
+        this(layers, new TextPropertiesStorage(), Platform::runLater);
+    }
+
+    /**
+     * @param layers     layers below the own values, lowest (e.g. the defaults) first
+     * @param storage    storage of the own values
+     * @param fxExecutor executor of the FX thread for updates after a layer changed
+     */
+    public LayeredObservableProperties(final List<PropertiesLayer> layers, final PropertiesStorage storage,
+                                       final Executor fxExecutor) {
+        super(storage);
+        final List<PropertiesLayer> highestFirst = new ArrayList<>(layers);
+        Collections.reverse(highestFirst);
+        this.layers = Collections.unmodifiableList(highestFirst);
+        this.fxExecutor = fxExecutor;
+        for (final PropertiesLayer layer : layers) {
+            layer.addListener(layerListener);
+        }
+    }
+
+    /**
+     * Returns true if the key has an own value that overrides the layers.
+     */
+    public boolean isOverridden(final String key) {
+        return super.getStoredValue(key) != null;
+    }
+
+    /**
+     * Returns the keys with the given prefix that have an own value or a value in one of the layers.
+     */
+    @Override
+    public synchronized SortedSet<String> keysWithPrefix(final String prefix) {
+        final SortedSet<String> keys = super.keysWithPrefix(prefix);
+        for (final PropertiesLayer layer : layers) {
+            keys.addAll(withPrefix(layer.getValues(), prefix).keySet());
+        }
+        return keys;
+    }
+
+    @Override
+    Object getStoredValue(final String key) {
+        final Object value = super.getStoredValue(key);
+        return value != null ? value : resolveLayers(key);
+    }
+
+    private Object resolveLayers(final String key) {
+        Object value = resolvedValues.get(key);
+        if (value == null) {
+            final long resolvedGeneration = generation.get();
+            value = NONE;
+            for (final PropertiesLayer layer : layers) {
+                final Object layerValue = layer.get(key);
+                if (layerValue != null) {
+                    value = layerValue;
+                    break;
+                }
+            }
+            //Nicht zwischenspeichern, wenn sich eine Schicht während der Auflösung geändert hat
+            if (generation.get() == resolvedGeneration) {
+                resolvedValues.put(key, value);
+            }
+        }
+        return value != NONE ? value : null;
+    }
+
+    /**
+     * Called on the thread that changed the layer. The cached values become invalid at once, the registered
+     * properties are looked up and updated on the FX thread.
+     */
+    private void layersChanged(final Set<String> keys) {
+        generation.incrementAndGet();
+        for (final String key : keys) {
+            resolvedValues.remove(key);
+        }
+        fxExecutor.execute(() -> updateProperties(keys));
+    }
+
+    private void updateProperties(final Set<String> keys) {
+        for (final String key : keys) {
+            final RegisteredProperty registeredProperty = getRegisteredProperty(key);
+            if (registeredProperty != null && !isOverridden(key)) {
+                registeredProperty.decoder.accept(resolveLayers(key));
+            }
+        }
+    }
+}
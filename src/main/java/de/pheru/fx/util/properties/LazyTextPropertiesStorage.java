@@ -0,0 +1,229 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Reads {@code .properties} files lazily: loading reads the file into memory and only indexes the keys, a value is
+ * decoded when it is first requested. The values keep a copy of the file, so later changes of the file do not affect
+ * them. Saving copies the lines of entries that were not changed unmodified from the loaded file and
+ * writes all other entries like {@link TextPropertiesStorage}.
+ */
+public class LazyTextPropertiesStorage extends TextPropertiesStorage {
+
+    @Override
+    public void read(final Path file, final Map<String, Object> values) throws IOException {
+        //Kopie statt Mapping: die Datei kann danach von anderen Programmen geändert oder ersetzt werden
+        final ByteBuffer source = ByteBuffer.wrap(Files.readAllBytes(file));
+        final int limit = source.limit();
+        char[] line = new char[256];
+        int position = 0;
+        while (position < limit) {
+            byte b = source.get(position);
+            if (isWhitespace(b) || b == '\n' || b == '\r') {
+                position++;
+                continue;
+            }
+            if (b == '#' || b == '!') {
+                position = lineEnd(source, position, limit, false);
+                continue;
+            }
+            final int start = position;
+            final int end = lineEnd(source, start, limit, true);
+            if (end - start > line.length) {
+                line = new char[Math.max(end - start, 2 * line.length)];
+            }
+            final int length = join(source, start, end, line);
+            final int keyLength = keyLength(line, length);
+            values.put(loadConvert(line, 0, keyLength), new LazyValue(source, start, end));
+            position = end;
+        }
+    }
+
+    @Override
+    void writeEntry(final PropertiesWriter writer, final String key, final Object value) throws IOException {
+        if (value instanceof LazyValue) {
+            ((LazyValue) value).writeRaw(writer);
+        } else {
+            super.writeEntry(writer, key, value);
+        }
+    }
+
+    /**
+     * End of the (for entries: logical) line starting at the given position, excluding the line terminator.
+     */
+    private static int lineEnd(final ByteBuffer source, final int start, final int limit, final boolean continuation) {
+        int backslashes = 0;
+        for (int i = start; i < limit; i++) {
+            final byte b = source.get(i);
+            if (b == '\n' || b == '\r') {
+                if (!continuation || backslashes % 2 == 0) {
+                    return i;
+                }
+                if (b == '\r' && i + 1 < limit && source.get(i + 1) == '\n') {
+                    i++;
+                }
+                backslashes = 0;
+            } else if (b == '\\') {
+                backslashes++;
+            } else {
+                backslashes = 0;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Copies the logical line into the given buffer, joining continued lines like {@link Properties#load}.
+     */
+    private static int join(final ByteBuffer source, final int start, final int end, final char[] line) {
+        int length = 0;
+        int i = start;
+        while (i < end) {
+            final byte b = source.get(i++);
+            if (b == '\n' || b == '\r') {
+                //Fortsetzungszeile: Backslash entfernen, Zeilenumbruch und führende Leerzeichen überspringen
+                length--;
+                if (b == '\r' && i < end && source.get(i) == '\n') {
+                    i++;
+                }
+                while (i < end && isWhitespace(source.get(i))) {
+                    i++;
+                }
+            } else {
+                line[length++] = (char) (b & 0xFF);
+            }
+        }
+        if (end == source.limit() && length > 0 && trailingBackslashes(line, length) % 2 == 1) {
+            length--;
+        }
+        return length;
+    }
+
+    private static int trailingBackslashes(final char[] line, final int length) {
+        int count = 0;
+        while (count < length && line[length - 1 - count] == '\\') {
+            count++;
+        }
+        return count;
+    }
+
+    private static int keyLength(final char[] line, final int length) {
+        boolean precedingBackslash = false;
+        for (int i = 0; i < length; i++) {
+            final char c = line[i];
+            if (!precedingBackslash && (c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f')) {
+                return i;
+            }
+            precedingBackslash = c == '\\' && !precedingBackslash;
+        }
+        return length;
+    }
+
+    private static int valueStart(final char[] line, final int length, final int keyLength) {
+        int i = keyLength;
+        boolean hasSeparator = false;
+        if (i < length) {
+            hasSeparator = line[i] == '=' || line[i] == ':';
+            i++;
+        }
+        while (i < length) {
+            final char c = line[i];
+            if (c == ' ' || c == '\t' || c == '\f') {
+                i++;
+            } else if (!hasSeparator && (c == '=' || c == ':')) {
+                hasSeparator = true;
+                i++;
+            } else {
+                break;
+            }
+        }
+        return i;
+    }
+
+    private static String loadConvert(final char[] in, final int offset, final int length) {
+        final char[] out = new char[length];
+        int outLength = 0;
+        int i = offset;
+        final int end = offset + length;
+        while (i < end) {
+            char c = in[i++];
+            if (c == '\\' && i < end) {
+                c = in[i++];
+                if (c == 'u') {
+                    if (i + 4 > end) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    int value = 0;
+                    for (int j = 0; j < 4; j++) {
+                        final int digit = Character.digit(in[i++], 16);
+                        if (digit < 0) {
+                            throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                        }
+                        value = (value << 4) + digit;
+                    }
+                    c = (char) value;
+                } else if (c == 't') {
+                    c = '\t';
+                } else if (c == 'r') {
+                    c = '\r';
+                } else if (c == 'n') {
+                    c = '\n';
+                } else if (c == 'f') {
+                    c = '\f';
+                }
+            }
+            out[outLength++] = c;
+        }
+        return new String(out, 0, outLength);
+    }
+
+    private static boolean isWhitespace(final byte b) {
+        return b == ' ' || b == '\t' || b == '\f';
+    }
+
+    /**
+     * Entry of the loaded file, decoded by {@link #toString()}. The decoded value is kept; from then on the entry only
+     * references its own bytes instead of the whole loaded file.
+     */
+    static final class LazyValue {
+
+        private ByteBuffer source;
+        private int start;
+        private int end;
+        private String value;
+
+        private LazyValue(final ByteBuffer source, final int start, final int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public synchronized String toString() {
+            if (value == null) {
+                final char[] line = new char[end - start];
+                final int length = join(source, start, end, line);
+                final int valueStart = valueStart(line, length, keyLength(line, length));
+                value = loadConvert(line, valueStart, length - valueStart);
+                //Die Zeile wird beim Speichern weiterhin unverändert kopiert, dafür reichen ihre eigenen Bytes
+                final byte[] entry = new byte[end - start];
+                for (int i = 0; i < entry.length; i++) {
+                    entry[i] = source.get(start + i);
+                }
+                source = ByteBuffer.wrap(entry);
+                start = 0;
+                end = entry.length;
+            }
+            return value;
+        }
+
+        private synchronized void writeRaw(final PropertiesWriter writer) throws IOException {
+            writer.writeRaw(source, start, end);
+        }
+    }
+}
@@ -1,39 +1,106 @@
 package de.pheru.fx.util.properties;
 
+import javafx.application.Platform;
+import javafx.beans.Observable;
 import javafx.beans.property.*;
 import javafx.util.StringConverter;
 
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class ObservableProperties {
 
     protected static final String NO_FILEPATH_EXCEPTION_MSG = "No filepath provided! Use save(comments, filepath) or make sure to call load(filepath) before saving.";
 
-    private String filePath;
-    private final Properties properties;
-    private final Map<String, Property<?>> fxProperties;
+    private volatile String filePath;
+    private volatile WriteBehind writeBehind;
+    private volatile FileWatcher fileWatcher;
+    private final PropertiesStorage storage;
+    private final SortedMap<String, Object> properties;
+    private final Map<String, RegisteredProperty> fxProperties;
     private final Map<Class<?>, StringConverter<?>> stringConverters;
+    private final Map<Class<?>, StringConverter<?>> resolvedConverters;
+    private final Set<String> dirtyKeys;
+    private final Set<String> changedKeys;
+    private final boolean eagerUpdates;
+    //Schreibvorgänge nacheinander, aber ohne den Monitor der Instanz (der ist nur für das Kopieren der Werte nötig)
+    private final Object writeLock = new Object();
+    //Abbild der Werte für storage.write, nur mit writeLock verwendet. Pro Schreibvorgang werden nur die geänderten
+    //Schlüssel übernommen statt alle Werte zu kopieren; nach load und reload wird es einmal neu aufgebaut.
+    private final SortedMap<String, Object> writtenValues = new TreeMap<>();
+    private boolean writtenValuesStale = true;
 
     public ObservableProperties() {
-        properties = new Properties() {
-            // alphabetical key order
-            @Override
-            public synchronized Enumeration<Object> keys() {
-                return Collections.enumeration(new TreeSet<>(super.keySet()));
-            }
-        };
-        fxProperties = new HashMap<>();
+        this(new TextPropertiesStorage());
+    }
+
+    public ObservableProperties(final PropertiesStorage storage) {
+        this(storage, new TreeMap<>(), new HashMap<>(), false);
+    }
+
+    /**
+     * @param eagerUpdates true to store the value of a property on every change instead of when saving
+     */
+    ObservableProperties(final PropertiesStorage storage, final SortedMap<String, Object> properties,
+                         final Map<String, RegisteredProperty> fxProperties, final boolean eagerUpdates) {
+        this.storage = storage;
+        this.properties = properties;
+        this.fxProperties = fxProperties;
+        this.eagerUpdates = eagerUpdates;
         stringConverters = new HashMap<>();
+        resolvedConverters = new HashMap<>();
+        dirtyKeys = new HashSet<>();
+        changedKeys = new HashSet<>();
+    }
+
+    public synchronized void load(final String filePath) throws IOException {
+        clear();
+        storage.read(Paths.get(filePath), properties);
+        loaded(filePath);
     }
 
-    public void load(final String filePath) throws IOException {
+    /**
+     * Reads the given file without changing this instance, so it can be done on any thread. The values are taken over
+     * with {@link #apply(String, SortedMap)}.
+     */
+    SortedMap<String, Object> read(final String filePath) throws IOException {
+        final SortedMap<String, Object> values = new TreeMap<>();
+        storage.read(Paths.get(filePath), values);
+        return values;
+    }
+
+    /**
+     * Takes over the values read by {@link #read(String)} as if the file had been loaded.
+     */
+    synchronized void apply(final String filePath, final SortedMap<String, Object> values) throws IOException {
+        clear();
+        properties.putAll(values);
+        loaded(filePath);
+    }
+
+    private void clear() {
         properties.clear();
+        writtenValuesStale = true;
         fxProperties.clear();
-        try (final InputStream inputStream = new FileInputStream(filePath)) {
-            properties.load(inputStream);
-        }
+        dirtyKeys.clear();
+        changedKeys.clear();
+    }
+
+    private void loaded(final String filePath) throws IOException {
         this.filePath = filePath;
+        final FileWatcher currentFileWatcher = fileWatcher;
+        if (currentFileWatcher != null) {
+            currentFileWatcher.close();
+            fileWatcher = new FileWatcher(this, Paths.get(filePath), currentFileWatcher.getFxExecutor());
+        }
     }
 
     public void save(final String comments) throws IOException {
@@ -43,75 +110,581 @@ public class ObservableProperties {
         save(comments, filePath);
     }
 
+    /**
+     * Writes the properties to the given file. The file is replaced atomically, so it is never left half written. If
+     * nothing changed since the last load or save of the same file, the file is not written at all.
+     */
     public void save(final String comments, final String filePath) throws IOException {
-        for (final Map.Entry<String, Property<?>> entry : fxProperties.entrySet()) {
-            final String value = getPropertyValueAsString(entry.getValue());
-            properties.setProperty(entry.getKey(), value);
+        synchronized (writeLock) {
+            final SortedMap<String, Object> values;
+            final Set<String> writtenKeys;
+            final boolean sameFile;
+            synchronized (this) {
+                applyDirtyKeys();
+                sameFile = filePath.equals(this.filePath);
+                if (changedKeys.isEmpty() && sameFile && new File(filePath).exists()) {
+                    return;
+                }
+                writtenKeys = takeChangedKeys();
+                values = takeWrittenValues(writtenKeys);
+            }
+            write(Paths.get(filePath), values, sameFile ? writtenKeys : values.keySet(), writtenKeys, comments);
+            this.filePath = filePath;
         }
-        try (final OutputStream outputStream = new FileOutputStream(filePath)) {
-            properties.store(outputStream, comments);
+    }
+
+    /**
+     * Returns true if a registered property differs from the last loaded or saved value.
+     */
+    public synchronized boolean hasUnsavedChanges() {
+        applyDirtyKeys();
+        return !changedKeys.isEmpty();
+    }
+
+    /**
+     * Writes the current values to the loaded file on a background thread whenever a registered property changes.
+     * Changes within the given delay after the first one are written together. Pending changes are written by
+     * {@link #flush()}, {@link #disableAutoSave()} or at the latest when the JVM shuts down.
+     */
+    public void enableAutoSave(final String comments, final long delay, final TimeUnit unit) throws IOException {
+        enableAutoSave(comments, delay, unit, null);
+    }
+
+    /**
+     * Like {@link #enableAutoSave(String, long, TimeUnit)}, but writes on the given executor, which will not be shut
+     * down by this instance.
+     */
+    public void enableAutoSave(final String comments, final long delay, final TimeUnit unit,
+                               final ScheduledExecutorService executor) throws IOException {
+        if (filePath == null) {
+            throw new IllegalStateException(NO_FILEPATH_EXCEPTION_MSG);
+        }
+        //Wie beim Schreiben erst writeLock, dann den Monitor der Instanz sperren
+        synchronized (writeLock) {
+            disableAutoSave();
+            applyDirtyKeys();
+            writeBehind = new WriteBehind(this, comments, delay, unit, executor);
         }
-        this.filePath = filePath;
     }
 
-    public <T> void registerConverter(final Class<T> clazz, final StringConverter<T> converter) {
+    public void disableAutoSave() throws IOException {
+        synchronized (writeLock) {
+            final WriteBehind currentWriteBehind = writeBehind;
+            writeBehind = null;
+            if (currentWriteBehind != null) {
+                currentWriteBehind.shutdown();
+            }
+        }
+    }
+
+    public boolean isAutoSaveEnabled() {
+        return writeBehind != null;
+    }
+
+    /**
+     * Writes pending changes of the auto save immediately. Throws the failure of a previous background write, if any.
+     */
+    public void flush() throws IOException {
+        final WriteBehind currentWriteBehind = writeBehind;
+        if (currentWriteBehind != null) {
+            currentWriteBehind.flush();
+        }
+    }
+
+    /**
+     * Watches the loaded file and takes over changes made by other programs without reloading everything: only the
+     * properties of added, changed or removed keys are updated, all together on the FX thread. A removed key resets its
+     * property to the default value. Keys with unsaved changes keep their value.
+     */
+    public void enableHotReload() throws IOException {
+        enableHotReload(Platform::runLater);
+    }
+
+    /**
+     * Like {@link #enableHotReload()}, but updates the properties on the given executor.
+     */
+    public synchronized void enableHotReload(final Executor fxExecutor) throws IOException {
+        if (filePath == null) {
+            throw new IllegalStateException(NO_FILEPATH_EXCEPTION_MSG);
+        }
+        disableHotReload();
+        fileWatcher = new FileWatcher(this, Paths.get(filePath), fxExecutor);
+    }
+
+    public synchronized void disableHotReload() {
+        if (fileWatcher != null) {
+            fileWatcher.close();
+            fileWatcher = null;
+        }
+    }
+
+    public boolean isHotReloadEnabled() {
+        return fileWatcher != null;
+    }
+
+    /**
+     * Reads the changed file and determines the changed keys on the calling thread. The values and their properties
+     * are changed together on the FX thread, keys changed there in the meantime keep their value.
+     */
+    void reload(final Path file, final Executor fxExecutor) throws IOException {
+        //Schlüssel -> neuer Wert, null für entfernte Schlüssel
+        final Map<String, Object> changes = new HashMap<>();
+        //Nicht während eines eigenen Schreibvorgangs lesen und vergleichen
+        synchronized (writeLock) {
+            final Map<String, Object> loaded = new HashMap<>();
+            storage.read(file, loaded);
+            synchronized (this) {
+                if (!isLoadedFile(file)) {
+                    return;
+                }
+                applyDirtyKeys();
+                for (final Map.Entry<String, Object> entry : loaded.entrySet()) {
+                    final String key = entry.getKey();
+                    final Object storedValue = properties.get(key);
+                    if (!isUnsaved(key) && (storedValue == null || !storedValue.toString().equals(entry.getValue().toString()))) {
+                        changes.put(key, entry.getValue());
+                    }
+                }
+                for (final String key : properties.keySet()) {
+                    if (!loaded.containsKey(key) && !isUnsaved(key)) {
+                        changes.put(key, null);
+                    }
+                }
+            }
+        }
+        if (!changes.isEmpty()) {
+            fxExecutor.execute(() -> applyReload(file, changes));
+        }
+    }
+
+    private void applyReload(final Path file, final Map<String, Object> changes) {
+        final Map<RegisteredProperty, Object> updates = new HashMap<>();
+        synchronized (this) {
+            if (!isLoadedFile(file)) {
+                return;
+            }
+            applyDirtyKeys();
+            for (final Map.Entry<String, Object> change : changes.entrySet()) {
+                final String key = change.getKey();
+                if (isUnsaved(key)) {
+                    continue;
+                }
+                if (change.getValue() != null) {
+                    properties.put(key, change.getValue());
+                } else {
+                    properties.remove(key);
+                }
+                addUpdate(key, change.getValue(), updates);
+            }
+            //Die neuen Werte zählen nicht als Änderung, das Abbild zum Schreiben muss sie trotzdem übernehmen
+            writtenValuesStale = true;
+        }
+        for (final Map.Entry<RegisteredProperty, Object> update : updates.entrySet()) {
+            update.getKey().decoder.accept(update.getValue());
+        }
+    }
+
+    private boolean isLoadedFile(final Path file) {
+        return filePath != null && file.equals(Paths.get(filePath).toAbsolutePath());
+    }
+
+    private boolean isUnsaved(final String key) {
+        return changedKeys.contains(key);
+    }
+
+    private void addUpdate(final String key, final Object value, final Map<RegisteredProperty, Object> updates) {
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            updates.put(registeredProperty, value);
+        }
+    }
+
+    void store(final String comments) throws IOException {
+        synchronized (writeLock) {
+            final SortedMap<String, Object> values;
+            final Set<String> writtenKeys;
+            synchronized (this) {
+                if (changedKeys.isEmpty()) {
+                    return;
+                }
+                writtenKeys = takeChangedKeys();
+                values = takeWrittenValues(writtenKeys);
+            }
+            write(Paths.get(filePath), values, writtenKeys, writtenKeys, comments);
+        }
+    }
+
+    private Set<String> takeChangedKeys() {
+        final Set<String> keys = new HashSet<>(changedKeys);
+        changedKeys.clear();
+        return keys;
+    }
+
+    /**
+     * Brings the values to write up to date with the given changed keys. Must be called holding writeLock and the
+     * monitor of this instance; the returned map may then be written without the monitor until writeLock is released.
+     */
+    private SortedMap<String, Object> takeWrittenValues(final Set<String> writtenKeys) {
+        if (writtenValuesStale) {
+            writtenValues.clear();
+            writtenValues.putAll(properties);
+            writtenValuesStale = false;
+            return writtenValues;
+        }
+        for (final String key : writtenKeys) {
+            final Object value = properties.get(key);
+            if (value != null) {
+                writtenValues.put(key, value);
+            } else {
+                writtenValues.remove(key);
+            }
+        }
+        return writtenValues;
+    }
+
+    /**
+     * Writes a snapshot of the values without holding the monitor of this instance, so that properties can change
+     * while the file is written. If writing fails, the written keys count as unsaved again.
+     */
+    private void write(final Path file, final SortedMap<String, Object> values, final Collection<String> keys,
+                       final Set<String> writtenKeys, final String comments) throws IOException {
+        try {
+            storage.write(file, values, keys, comments);
+        } catch (final IOException | RuntimeException e) {
+            synchronized (this) {
+                changedKeys.addAll(writtenKeys);
+            }
+            throw e;
+        }
+    }
+
+    private synchronized <P extends Property<?>> P register(final String key, final P property, final Supplier<Object> codec,
+                                                            final Consumer<Object> decoder) {
+        final RegisteredProperty existing = fxProperties.get(key);
+        if (existing != null) {
+            //Ein anderer Thread war schneller, alle bekommen dieselbe Property
+            return (P) existing.property;
+        }
+        final RegisteredProperty registeredProperty = new RegisteredProperty(property, codec, decoder);
+        fxProperties.put(key, registeredProperty);
+        property.addListener((Observable observable) -> propertyChanged(key, registeredProperty));
+        //Auch der Default-Wert einer neuen Property muss gespeichert werden
+        propertyChanged(key, registeredProperty);
+        return property;
+    }
+
+    private void propertyChanged(final String key, final RegisteredProperty registeredProperty) {
+        propertyInvalidated(registeredProperty);
+        final WriteBehind currentWriteBehind = writeBehind;
+        if (currentWriteBehind == null && !eagerUpdates) {
+            synchronized (this) {
+                dirtyKeys.add(key);
+            }
+            //Property wieder validieren, damit der Listener auch bei der nächsten Änderung benachrichtigt wird
+            registeredProperty.property.getValue();
+        } else if (fxProperties.get(key) == registeredProperty) {
+            //Der Wert wird im aufrufenden Thread übernommen, der Hintergrund-Thread liest keine Properties
+            if (update(key, registeredProperty.codec.get()) && currentWriteBehind != null) {
+                currentWriteBehind.changed();
+            }
+        }
+    }
+
+    /**
+     * Called on every invalidation of a registered property (also when it is bound), before its value is stored.
+     */
+    void propertyInvalidated(final RegisteredProperty registeredProperty) {
+    }
+
+    /**
+     * Stores the given value for the key without touching its property. Objects other than Strings and boxed
+     * primitives are stored with their registered converter.
+     */
+    void storeValue(final String key, final Object value) {
+        final WriteBehind currentWriteBehind = writeBehind;
+        if (update(key, toStoredValue(value)) && currentWriteBehind != null) {
+            currentWriteBehind.changed();
+        }
+    }
+
+    private Object toStoredValue(final Object value) {
+        if (value instanceof String || value instanceof Boolean || value instanceof Integer || value instanceof Long
+                || value instanceof Float || value instanceof Double) {
+            return value;
+        }
+        return requireConverter(value.getClass()).toString(value);
+    }
+
+    /**
+     * Starts a transaction that stages values and sets them all at once with {@link PropertiesTransaction#commit()}.
+     */
+    public PropertiesTransaction beginTransaction() {
+        return new PropertiesTransaction(this);
+    }
+
+    /**
+     * Stores the given values and sets the properties of their keys. All values are converted and checked against the
+     * type of their property before anything is changed; if a property still cannot be set (e.g. because it is bound),
+     * the values and properties changed so far are restored.
+     */
+    void commit(final Map<String, Object> values) {
+        final Map<String, Object> storedValues = new LinkedHashMap<>();
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            final RegisteredProperty registeredProperty = getRegisteredProperty(entry.getKey());
+            if (registeredProperty != null) {
+                registeredProperty.checkValue(entry.getKey(), entry.getValue());
+            }
+            storedValues.put(entry.getKey(), toStoredValue(entry.getValue()));
+        }
+        final Map<String, Object> previousStoredValues = new HashMap<>();
+        final Set<String> previousChangedKeys;
+        boolean changed = false;
+        synchronized (this) {
+            applyDirtyKeys();
+            previousChangedKeys = new HashSet<>(changedKeys);
+            for (final Map.Entry<String, Object> entry : storedValues.entrySet()) {
+                previousStoredValues.put(entry.getKey(), properties.get(entry.getKey()));
+                changed |= update(entry.getKey(), entry.getValue());
+            }
+        }
+        //Die Werte sind bereits gespeichert, die Listener der Properties lösen daher weder Speichern noch Auto-Save aus
+        final Map<RegisteredProperty, Object> previousPropertyValues = new LinkedHashMap<>();
+        try {
+            for (final Map.Entry<String, Object> entry : values.entrySet()) {
+                final RegisteredProperty registeredProperty = getRegisteredProperty(entry.getKey());
+                if (registeredProperty != null) {
+                    previousPropertyValues.put(registeredProperty, registeredProperty.property.getValue());
+                    registeredProperty.setValue(entry.getValue());
+                }
+            }
+        } catch (final RuntimeException e) {
+            synchronized (this) {
+                for (final Map.Entry<String, Object> previous : previousStoredValues.entrySet()) {
+                    if (previous.getValue() != null) {
+                        properties.put(previous.getKey(), previous.getValue());
+                    } else {
+                        properties.remove(previous.getKey());
+                    }
+                }
+                changedKeys.retainAll(previousChangedKeys);
+                writtenValuesStale = true;
+            }
+            for (final Map.Entry<RegisteredProperty, Object> previous : previousPropertyValues.entrySet()) {
+                previous.getKey().setValue(previous.getValue());
+            }
+            throw e;
+        }
+        final WriteBehind currentWriteBehind = writeBehind;
+        if (changed && currentWriteBehind != null) {
+            currentWriteBehind.changed();
+        }
+    }
+
+    /**
+     * Value of the key that properties are created from and compared with, null if there is none.
+     */
+    Object getStoredValue(final String key) {
+        return properties.get(key);
+    }
+
+    RegisteredProperty getRegisteredProperty(final String key) {
+        return fxProperties.get(key);
+    }
+
+    private synchronized void applyDirtyKeys() {
+        for (final String key : dirtyKeys) {
+            final RegisteredProperty registeredProperty = fxProperties.get(key);
+            if (registeredProperty != null) {
+                update(key, registeredProperty.codec.get());
+            }
+        }
+        dirtyKeys.clear();
+    }
+
+    private synchronized boolean update(final String key, final Object value) {
+        if (value == null) {
+            //Property ohne Wert (null): der Schlüssel wird nicht gespeichert
+            if (properties.remove(key) == null) {
+                return false;
+            }
+            changedKeys.add(key);
+            return true;
+        }
+        final Object storedValue = getStoredValue(key);
+        if (value.equals(storedValue)) {
+            return false;
+        }
+        //Aus Textdateien geladene Werte liegen als String vor, typisierte Werte gelten bei gleicher Darstellung als unverändert
+        if (storedValue != null && storedValue.toString().equals(value.toString())) {
+            if (!(value instanceof String) && properties.get(key) == storedValue) {
+                //Den geparsten Wert behalten, damit nicht zusätzlich der geladene String im Speicher bleibt
+                properties.put(key, value);
+            }
+            return false;
+        }
+        properties.put(key, value);
+        changedKeys.add(key);
+        return true;
+    }
+
+    public synchronized <T> void registerConverter(final Class<T> clazz, final StringConverter<T> converter) {
         stringConverters.put(clazz, converter);
+        resolvedConverters.clear();
+    }
+
+    /**
+     * Returns the converter registered for the given class or, if there is none, for its nearest superclass or
+     * interface.
+     */
+    private synchronized StringConverter<?> findConverter(final Class<?> clazz) {
+        if (resolvedConverters.containsKey(clazz)) {
+            return resolvedConverters.get(clazz);
+        }
+        StringConverter<?> converter = null;
+        final Deque<Class<?>> candidates = new ArrayDeque<>();
+        candidates.add(clazz);
+        while (converter == null && !candidates.isEmpty()) {
+            final Class<?> candidate = candidates.poll();
+            converter = stringConverters.get(candidate);
+            if (candidate.getSuperclass() != null) {
+                candidates.add(candidate.getSuperclass());
+            }
+            candidates.addAll(Arrays.asList(candidate.getInterfaces()));
+        }
+        resolvedConverters.put(clazz, converter);
+        return converter;
+    }
+
+    private <T> StringConverter<T> requireConverter(final Class<?> clazz) {
+        final StringConverter<T> converter = (StringConverter<T>) findConverter(clazz);
+        if (converter == null) {
+            throw new IllegalStateException("No StringConverter registered for " + clazz + "!");
+        }
+        return converter;
     }
 
     public boolean contains(final ObservablePropertyKey<?> key) {
         return contains(key.getKey());
     }
 
-    public boolean contains(final String key) {
-        return properties.containsKey(key);
+    /**
+     * Returns true if the key has a value: loaded from the file or set by a registered property, including the default
+     * value of a newly registered property. The same in every mode, with or without auto save.
+     */
+    public synchronized boolean contains(final String key) {
+        //Wie keysWithPrefix: neu registrierte Properties zählen sofort, nicht erst nach dem Speichern
+        applyDirtyKeys();
+        return getStoredValue(key) != null;
+    }
+
+    /**
+     * Returns the keys that start with the given prefix (e.g. "table.orders." for a namespace) in ascending order.
+     * Only the range of the prefix is read, not all keys.
+     */
+    public synchronized SortedSet<String> keysWithPrefix(final String prefix) {
+        //Neu registrierte Properties übernehmen, damit auch ihre Schlüssel gefunden werden
+        applyDirtyKeys();
+        return new TreeSet<>(withPrefix(properties, prefix).keySet());
     }
 
-    private String getPropertyValueAsString(final Property<?> property) {
-        final String value;
-        if (property instanceof StringProperty) {
-            value = ((StringProperty) property).get();
-        } else if (property instanceof BooleanProperty) {
-            value = String.valueOf(((BooleanProperty) property).get());
-        } else if (property instanceof IntegerProperty) {
-            value = String.valueOf(((IntegerProperty) property).get());
-        } else if (property instanceof LongProperty) {
-            value = String.valueOf(((LongProperty) property).get());
-        } else if (property instanceof FloatProperty) {
-            value = String.valueOf(((FloatProperty) property).get());
-        } else if (property instanceof DoubleProperty) {
-            value = String.valueOf(((DoubleProperty) property).get());
-        } else if (property instanceof ObjectProperty) {
-            final Object object = ((ObjectProperty) property).get();
-            final StringConverter stringConverter = stringConverters.get(object.getClass());
-            value = stringConverter.toString(object);
-        } else {
-            throw new IllegalArgumentException("Illegal type of property \"" + property.getName() + "\"!");
+    /**
+     * Returns the properties of all keys that start with the given prefix, created by the given factory, e.g.
+     * {@code propertiesWithPrefix("table.orders.", key -> doubleProperty(key, 80))}.
+     */
+    public <P extends Property<?>> SortedMap<String, P> propertiesWithPrefix(final String prefix,
+                                                                            final Function<String, P> factory) {
+        final SortedMap<String, P> namespace = new TreeMap<>();
+        for (final String key : keysWithPrefix(prefix)) {
+            namespace.put(key, factory.apply(key));
         }
-        return value;
+        return namespace;
+    }
+
+    /**
+     * Removes all keys that start with the given prefix. Their properties are reset to the value the key resolves to
+     * without an own value (the default value) and are no longer stored; request them again to store new values.
+     */
+    public void removeWithPrefix(final String prefix) {
+        final Map<RegisteredProperty, Object> resets = new HashMap<>();
+        final boolean removed;
+        synchronized (this) {
+            applyDirtyKeys();
+            final SortedMap<String, Object> namespace = withPrefix(properties, prefix);
+            final List<String> keys = new ArrayList<>(namespace.keySet());
+            namespace.clear();
+            changedKeys.addAll(keys);
+            for (final String key : keys) {
+                final RegisteredProperty registeredProperty = fxProperties.remove(key);
+                if (registeredProperty != null) {
+                    resets.put(registeredProperty, getStoredValue(key));
+                }
+            }
+            removed = !keys.isEmpty();
+        }
+        for (final Map.Entry<RegisteredProperty, Object> reset : resets.entrySet()) {
+            reset.getKey().decoder.accept(reset.getValue());
+        }
+        final WriteBehind currentWriteBehind = writeBehind;
+        if (removed && currentWriteBehind != null) {
+            currentWriteBehind.changed();
+        }
+    }
+
+    /**
+     * Range of the given sorted map with the keys that start with the given prefix.
+     */
+    static <V> SortedMap<String, V> withPrefix(final SortedMap<String, V> map, final String prefix) {
+        return map.subMap(prefix, prefix + Character.MAX_VALUE);
     }
 
     public <T> ObjectProperty<T> objectProperty(final ObservablePropertyKey<T> propertyKey) {
         return objectProperty(propertyKey.getKey(), propertyKey.getDefaultValue());
     }
 
+    /**
+     * Returns the property of the key. The StringConverter is chosen by the class of the default value or, if the default
+     * value is null, by the class of the value to store; a stored value can only be read with a non-null default value
+     * or with {@link #objectProperty(String, Class, Object)}. A property with the value null is not stored.
+     */
     public <T> ObjectProperty<T> objectProperty(final String key, final T defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (ObjectProperty<T>) fxProperties.get(key);
-        }
-        final String propertyValue = properties.getProperty(key);
-        T value;
-        if (propertyValue != null) {
-            final StringConverter<T> stringConverter = (StringConverter<T>) stringConverters.get(defaultValue.getClass());
-            if (stringConverter == null) {
-                throw new IllegalStateException("No StringConverter registered for " + defaultValue.getClass() + "!");
-            }
-            value = stringConverter.fromString(propertyValue);
-        } else {
-            value = defaultValue;
+        return createObjectProperty(key, defaultValue != null ? defaultValue.getClass() : null, defaultValue);
+    }
+
+    /**
+     * Like {@link #objectProperty(String, Object)}, but chooses the StringConverter by the given type, so the default
+     * value may be null.
+     */
+    public <T> ObjectProperty<T> objectProperty(final String key, final Class<T> type, final T defaultValue) {
+        return createObjectProperty(key, type, defaultValue);
+    }
+
+    private <T> ObjectProperty<T> createObjectProperty(final String key, final Class<?> type, final T defaultValue) {
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (ObjectProperty<T>) registeredProperty.property;
         }
+        final StringConverter<T> stringConverter = type != null ? (StringConverter<T>) findConverter(type) : null;
+        final String propertyValue = getStoredString(key);
+        final T value = propertyValue != null ? fromString(key, type, stringConverter, propertyValue) : defaultValue;
         final ObjectProperty<T> objectProperty = new SimpleObjectProperty<T>(value);
-        fxProperties.put(key, objectProperty);
-        return objectProperty;
+        return register(key, objectProperty, () -> {
+            final T object = objectProperty.get();
+            if (object == null) {
+                return null;
+            }
+            final StringConverter<T> converter = stringConverter != null ? stringConverter : requireConverter(object.getClass());
+            return converter.toString(object);
+        }, stored -> objectProperty.set(stored != null ? fromString(key, type, stringConverter, stored.toString()) : defaultValue));
+    }
+
+    private <T> T fromString(final String key, final Class<?> type, final StringConverter<T> converter, final String value) {
+        if (converter != null) {
+            return converter.fromString(value);
+        }
+        if (type == null) {
+            throw new IllegalStateException("No type to convert the value of \"" + key + "\", use objectProperty(key, type, defaultValue)!");
+        }
+        return this.<T>requireConverter(type).fromString(value);
     }
 
     public StringProperty stringProperty(final ObservablePropertyKey<String> propertyKey) {
@@ -119,16 +692,17 @@ public class ObservableProperties {
     }
 
     public StringProperty stringProperty(final String key, final String defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (StringProperty) fxProperties.get(key);
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (StringProperty) registeredProperty.property;
         }
-        String value = properties.getProperty(key);
+        String value = getStoredString(key);
         if (value == null) {
             value = defaultValue;
         }
         final StringProperty stringProperty = new SimpleStringProperty(value);
-        fxProperties.put(key, stringProperty);
-        return stringProperty;
+        return register(key, stringProperty, stringProperty::get,
+                stored -> stringProperty.set(stored != null ? stored.toString() : defaultValue));
     }
 
     public BooleanProperty booleanProperty(final ObservablePropertyKey<Boolean> propertyKey) {
@@ -136,19 +710,13 @@ public class ObservableProperties {
     }
 
     public BooleanProperty booleanProperty(final String key, final boolean defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (BooleanProperty) fxProperties.get(key);
-        }
-        final String propertyValue = properties.getProperty(key);
-        boolean value;
-        if (propertyValue != null) {
-            value = Boolean.valueOf(propertyValue);
-        } else {
-            value = defaultValue;
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (BooleanProperty) registeredProperty.property;
         }
-        final BooleanProperty booleanProperty = new SimpleBooleanProperty(value);
-        fxProperties.put(key, booleanProperty);
-        return booleanProperty;
+        final BooleanProperty booleanProperty = new SimpleBooleanProperty(ValueParser.parseBoolean(getStoredValue(key), defaultValue));
+        return register(key, booleanProperty, booleanProperty::get,
+                stored -> booleanProperty.set(ValueParser.parseBoolean(stored, defaultValue)));
     }
 
     public IntegerProperty integerProperty(final ObservablePropertyKey<Integer> propertyKey) {
@@ -156,18 +724,13 @@ public class ObservableProperties {
     }
 
     public IntegerProperty integerProperty(final String key, final int defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (IntegerProperty) fxProperties.get(key);
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (IntegerProperty) registeredProperty.property;
         }
-        int value;
-        try {
-            value = Integer.valueOf(properties.getProperty(key));
-        } catch (final NumberFormatException | NullPointerException e) {
-            value = defaultValue;
-        }
-        final IntegerProperty integerProperty = new SimpleIntegerProperty(value);
-        fxProperties.put(key, integerProperty);
-        return integerProperty;
+        final IntegerProperty integerProperty = new SimpleIntegerProperty(ValueParser.parseInt(getStoredValue(key), defaultValue));
+        return register(key, integerProperty, integerProperty::get,
+                stored -> integerProperty.set(ValueParser.parseInt(stored, defaultValue)));
     }
 
     public LongProperty longProperty(final ObservablePropertyKey<Long> propertyKey) {
@@ -175,18 +738,13 @@ public class ObservableProperties {
     }
 
     public LongProperty longProperty(final String key, final long defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (LongProperty) fxProperties.get(key);
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (LongProperty) registeredProperty.property;
         }
-        long value;
-        try {
-            value = Long.valueOf(properties.getProperty(key));
-        } catch (final NumberFormatException | NullPointerException e) {
-            value = defaultValue;
-        }
-        final LongProperty longProperty = new SimpleLongProperty(value);
-        fxProperties.put(key, longProperty);
-        return longProperty;
+        final LongProperty longProperty = new SimpleLongProperty(ValueParser.parseLong(getStoredValue(key), defaultValue));
+        return register(key, longProperty, longProperty::get,
+                stored -> longProperty.set(ValueParser.parseLong(stored, defaultValue)));
     }
 
     public FloatProperty floatProperty(final ObservablePropertyKey<Float> propertyKey) {
@@ -194,18 +752,13 @@ public class ObservableProperties {
     }
 
     public FloatProperty floatProperty(final String key, final float defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (FloatProperty) fxProperties.get(key);
-        }
-        float value;
-        try {
-            value = Float.valueOf(properties.getProperty(key));
-        } catch (final NumberFormatException | NullPointerException e) {
-            value = defaultValue;
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (FloatProperty) registeredProperty.property;
         }
-        final FloatProperty floatProperty = new SimpleFloatProperty(value);
-        fxProperties.put(key, floatProperty);
-        return floatProperty;
+        final FloatProperty floatProperty = new SimpleFloatProperty(ValueParser.parseFloat(getStoredValue(key), defaultValue));
+        return register(key, floatProperty, floatProperty::get,
+                stored -> floatProperty.set(ValueParser.parseFloat(stored, defaultValue)));
     }
 
     public DoubleProperty doubleProperty(final ObservablePropertyKey<Double> propertyKey) {
@@ -213,18 +766,18 @@ public class ObservableProperties {
     }
 
     public DoubleProperty doubleProperty(final String key, final double defaultValue) {
-        if (fxProperties.containsKey(key)) {
-            return (DoubleProperty) fxProperties.get(key);
+        final RegisteredProperty registeredProperty = fxProperties.get(key);
+        if (registeredProperty != null) {
+            return (DoubleProperty) registeredProperty.property;
         }
-        double value;
-        try {
-            value = Double.valueOf(properties.getProperty(key));
-        } catch (final NumberFormatException | NullPointerException e) {
-            value = defaultValue;
-        }
-        final DoubleProperty doubleProperty = new SimpleDoubleProperty(value);
-        fxProperties.put(key, doubleProperty);
-        return doubleProperty;
+        final DoubleProperty doubleProperty = new SimpleDoubleProperty(ValueParser.parseDouble(getStoredValue(key), defaultValue));
+        return register(key, doubleProperty, doubleProperty::get,
+                stored -> doubleProperty.set(ValueParser.parseDouble(stored, defaultValue)));
+    }
+
+    private String getStoredString(final String key) {
+        final Object storedValue = getStoredValue(key);
+        return storedValue != null ? storedValue.toString() : null;
     }
 
     public String getFilePath() {
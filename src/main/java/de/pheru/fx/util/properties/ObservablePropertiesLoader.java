@@ -0,0 +1,137 @@
+package de.pheru.fx.util.properties;
+
+import javafx.application.Platform;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Loads many {@link ObservableProperties} at once, e.g. at startup. The files are read and parsed in parallel on
+ * worker threads; each instance takes over its values on the FX thread as soon as its file has been read, so it is
+ * never changed from another thread. The time of each file is reported in its {@link Result}.
+ */
+public class ObservablePropertiesLoader implements Closeable {
+
+    private final Executor executor;
+    private final Executor fxExecutor;
+    private final boolean ownExecutor;
+
+    /**
+     * Reads on a fork-join pool with one thread per available processor, which is shut down by {@link #close()}.
+     */
+    public ObservablePropertiesLoader() {
+        this(null, Platform::runLater);
+    }
+
+    /**
+     * @param executor   executor for reading the files, which will not be shut down by this instance
+     * @param fxExecutor executor of the FX thread, {@link Platform#runLater(Runnable)} by default
+     */
+    public ObservablePropertiesLoader(final Executor executor, final Executor fxExecutor) {
+        this.ownExecutor = executor == null;
+        this.executor = executor != null ? executor : new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        this.fxExecutor = fxExecutor;
+    }
+
+    /**
+     * Loads the given file into the given instance, like {@link ObservableProperties#load(String)}. The returned
+     * future completes on the FX thread after the values have been taken over, or with the exception of the read.
+     */
+    public CompletableFuture<Result> load(final ObservableProperties observableProperties, final String filePath) {
+        return CompletableFuture.supplyAsync(() -> {
+            final long start = System.nanoTime();
+            try {
+                final SortedMap<String, Object> values = observableProperties.read(filePath);
+                return new Result(observableProperties, filePath, values, System.nanoTime() - start);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor).thenApplyAsync(result -> {
+            final long start = System.nanoTime();
+            try {
+                observableProperties.apply(filePath, result.values);
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            result.applyNanos = System.nanoTime() - start;
+            result.values = null;
+            return result;
+        }, fxExecutor);
+    }
+
+    /**
+     * Loads all given instances from their files in parallel. The returned future completes when all of them have
+     * been loaded, or exceptionally if one of them failed; the others are loaded nevertheless.
+     */
+    public CompletableFuture<List<Result>> loadAll(final Map<ObservableProperties, String> filePaths) {
+        final List<CompletableFuture<Result>> futures = new ArrayList<>();
+        for (final Map.Entry<ObservableProperties, String> entry : filePaths.entrySet()) {
+            futures.add(load(entry.getKey(), entry.getValue()));
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply(ignored -> {
+            final List<Result> results = new ArrayList<>(futures.size());
+            for (final CompletableFuture<Result> future : futures) {
+                results.add(future.join());
+            }
+            return results;
+        });
+    }
+
+    @Override
+    public void close() {
+        if (ownExecutor) {
+            ((ExecutorService) executor).shutdown();
+        }
+    }
+
+    /**
+     * Loaded file of an instance with the time it took.
+     */
+    public static final class Result {
+
+        private final ObservableProperties observableProperties;
+        private final String filePath;
+        private final long readNanos;
+        private SortedMap<String, Object> values;
+        private long applyNanos;
+
+        private Result(final ObservableProperties observableProperties, final String filePath,
+                       final SortedMap<String, Object> values, final long readNanos) {
+            this.observableProperties = observableProperties;
+            this.filePath = filePath;
+            this.values = values;
+            this.readNanos = readNanos;
+        }
+
+        public ObservableProperties getObservableProperties() {
+            return observableProperties;
+        }
+
+        public String getFilePath() {
+            return filePath;
+        }
+
+        /**
+         * Time for reading and parsing the file on the worker thread.
+         */
+        public long getReadNanos() {
+            return readNanos;
+        }
+
+        /**
+         * Time for taking over the values on the FX thread.
+         */
+        public long getApplyNanos() {
+            return applyNanos;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.AclFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class PropertiesFiles {
+
+    interface Content {
+        void writeTo(FileChannel channel) throws IOException;
+    }
+
+    private PropertiesFiles() {
+    }
+
+    /**
+     * Writes to a temp file next to the target, syncs it and moves it into place, so the target is never left half
+     * written. The permissions (POSIX or ACL) of an existing target are kept; a symbolic link keeps pointing to the
+     * replaced file.
+     */
+    static void writeAtomically(final Path file, final Content content) throws IOException {
+        //Bei einem symbolischen Link wird die Datei ersetzt, auf die er zeigt, nicht der Link selbst
+        final Path target = Files.exists(file) ? file.toRealPath() : file.toAbsolutePath();
+        final Path temp = createTempFile(target);
+        try {
+            copyPermissions(target, temp);
+            try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                content.writeTo(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Creates an empty file next to the target. Unlike {@link Files#createTempFile}, the file gets the default
+     * permissions of new files (umask), not 0600.
+     */
+    private static Path createTempFile(final Path target) throws IOException {
+        while (true) {
+            final Path temp = target.resolveSibling(target.getFileName().toString()
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE).close();
+                return temp;
+            } catch (final FileAlreadyExistsException e) {
+                //Anderen Namen versuchen
+            }
+        }
+    }
+
+    private static void copyPermissions(final Path source, final Path target) throws IOException {
+        if (!Files.exists(source)) {
+            return;
+        }
+        final PosixFileAttributeView posixSource = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if (posixSource != null) {
+            Files.setPosixFilePermissions(target, posixSource.readAttributes().permissions());
+        }
+        final AclFileAttributeView aclSource = Files.getFileAttributeView(source, AclFileAttributeView.class);
+        final AclFileAttributeView aclTarget = Files.getFileAttributeView(target, AclFileAttributeView.class);
+        if (aclSource != null && aclTarget != null) {
+            aclTarget.setAcl(aclSource.getAcl());
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Read-only layer of values below the values of a {@link LayeredObservableProperties}, e.g. shipped defaults or a
+ * site-wide file. A layer can be shared by any number of instances: its values are an immutable snapshot that is
+ * copied only when the layer is changed, and the instances using it are notified about the changed keys.
+ */
+public final class PropertiesLayer {
+
+    private final List<WeakReference<Consumer<Set<String>>>> listeners = new CopyOnWriteArrayList<>();
+    private volatile SortedMap<String, Object> values;
+
+    public PropertiesLayer(final Map<String, ?> values) {
+        this.values = Collections.unmodifiableSortedMap(new TreeMap<>(values));
+    }
+
+    public static PropertiesLayer load(final String filePath) throws IOException {
+        return load(filePath, new TextPropertiesStorage());
+    }
+
+    public static PropertiesLayer load(final String filePath, final PropertiesStorage storage) throws IOException {
+        final Map<String, Object> values = new HashMap<>();
+        storage.read(Paths.get(filePath), values);
+        return new PropertiesLayer(values);
+    }
+
+    public Object get(final String key) {
+        return values.get(key);
+    }
+
+    public boolean contains(final String key) {
+        return values.containsKey(key);
+    }
+
+    /**
+     * Returns the current snapshot of the values, sorted by key.
+     */
+    public SortedMap<String, Object> getValues() {
+        return values;
+    }
+
+    /**
+     * Replaces the values of the layer. Only the keys that were added, changed or removed are passed on to the
+     * instances using the layer.
+     */
+    public synchronized void setValues(final Map<String, ?> newValues) {
+        final Map<String, Object> oldValues = values;
+        final Set<String> changedKeys = new HashSet<>();
+        for (final Map.Entry<String, ?> entry : newValues.entrySet()) {
+            final Object oldValue = oldValues.get(entry.getKey());
+            if (oldValue == null || !oldValue.toString().equals(entry.getValue().toString())) {
+                changedKeys.add(entry.getKey());
+            }
+        }
+        for (final String key : oldValues.keySet()) {
+            if (!newValues.containsKey(key)) {
+                changedKeys.add(key);
+            }
+        }
+        values = Collections.unmodifiableSortedMap(new TreeMap<>(newValues));
+        fireChanged(changedKeys);
+    }
+
+    public synchronized void set(final String key, final Object value) {
+        final SortedMap<String, Object> newValues = new TreeMap<>(values);
+        if (value != null) {
+            newValues.put(key, value);
+        } else {
+            newValues.remove(key);
+        }
+        values = Collections.unmodifiableSortedMap(newValues);
+        fireChanged(Collections.singleton(key));
+    }
+
+    /**
+     * Adds a listener for changed keys. The layer holds it weakly, so instances using the layer can be collected
+     * without being removed.
+     */
+    void addListener(final Consumer<Set<String>> listener) {
+        listeners.add(new WeakReference<>(listener));
+    }
+
+    private void fireChanged(final Set<String> changedKeys) {
+        if (changedKeys.isEmpty()) {
+            return;
+        }
+        for (final WeakReference<Consumer<Set<String>>> reference : listeners) {
+            final Consumer<Set<String>> listener = reference.get();
+            if (listener != null) {
+                listener.accept(changedKeys);
+            } else {
+                listeners.remove(reference);
+            }
+        }
+    }
+}
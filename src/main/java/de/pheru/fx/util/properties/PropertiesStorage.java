@@ -0,0 +1,24 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * File format used by {@link ObservableProperties} to load and save its values. Values are either Strings or, for
+ * formats that keep the type, Boolean, Integer, Long, Float or Double.
+ */
+public interface PropertiesStorage {
+
+    /**
+     * Reads all entries of the given file into the given map.
+     */
+    void read(Path file, Map<String, Object> values) throws IOException;
+
+    /**
+     * Writes the given values to the given file. The changed keys are the keys whose value changed (or was removed
+     * from the map) since the last read or write of the same file.
+     */
+    void write(Path file, Map<String, Object> values, Collection<String> changedKeys, String comments) throws IOException;
+}
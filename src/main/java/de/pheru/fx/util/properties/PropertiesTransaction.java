@@ -0,0 +1,46 @@
+package de.pheru.fx.util.properties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Values staged for an {@link ObservableProperties} that are applied together, e.g. an imported profile. Nothing is
+ * changed before {@link #commit()}: it converts all values with the registered converters first, then stores them
+ * and sets the properties in one go. With auto save enabled, all values are written in one write; otherwise the next
+ * save writes them. If a value cannot be converted or set, all values and properties keep their previous values.
+ */
+public final class PropertiesTransaction {
+
+    private final ObservableProperties observableProperties;
+    private final Map<String, Object> values = new LinkedHashMap<>();
+
+    PropertiesTransaction(final ObservableProperties observableProperties) {
+        this.observableProperties = observableProperties;
+    }
+
+    public <T> void set(final ObservablePropertyKey<T> propertyKey, final T value) {
+        values.put(propertyKey.getKey(), Objects.requireNonNull(value));
+    }
+
+    /**
+     * Applies the staged values and clears them, so the transaction can be used again.
+     *
+     * @throws RuntimeException the exception of the value that could not be converted or set, after everything has
+     *                          been rolled back
+     */
+    public void commit() {
+        try {
+            observableProperties.commit(values);
+        } finally {
+            values.clear();
+        }
+    }
+
+    /**
+     * Discards the staged values.
+     */
+    public void rollback() {
+        values.clear();
+    }
+}
@@ -0,0 +1,167 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Writes {@code .properties} files byte for byte like {@link java.util.Properties#store(OutputStream, String)}, but
+ * escapes into a reused buffer that is written to a channel when full.
+ */
+final class PropertiesWriter {
+
+    private static final byte[] HEX = "0123456789ABCDEF".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.ISO_8859_1);
+
+    private final WritableByteChannel channel;
+    private final byte[] buffer = new byte[64 * 1024];
+    private final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+    private int position;
+
+    PropertiesWriter(final WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    void writeComments(final String comments) throws IOException {
+        write('#');
+        final int length = comments.length();
+        for (int i = 0; i < length; i++) {
+            final char c = comments.charAt(i);
+            if (c > 'ÿ') {
+                writeUnicode(c);
+            } else if (c == '\n' || c == '\r') {
+                newLine();
+                if (c == '\r' && i != length - 1 && comments.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                if (i == length - 1 || (comments.charAt(i + 1) != '#' && comments.charAt(i + 1) != '!')) {
+                    write('#');
+                }
+            } else {
+                write(c);
+            }
+        }
+        newLine();
+    }
+
+    void writeDate() throws IOException {
+        write('#');
+        final String date = new Date().toString();
+        for (int i = 0; i < date.length(); i++) {
+            write(date.charAt(i));
+        }
+        newLine();
+    }
+
+    void writeEntry(final String key, final String value) throws IOException {
+        writeEscaped(key, true);
+        write('=');
+        writeEscaped(value, false);
+        newLine();
+    }
+
+    /**
+     * Writes the given range of the source unchanged, followed by a line separator.
+     */
+    void writeRaw(final ByteBuffer source, final int start, final int end) throws IOException {
+        final ByteBuffer range = source.duplicate();
+        range.limit(end).position(start);
+        while (range.hasRemaining()) {
+            if (position == buffer.length) {
+                flushBuffer();
+            }
+            final int length = Math.min(range.remaining(), buffer.length - position);
+            range.get(buffer, position, length);
+            position += length;
+        }
+        newLine();
+    }
+
+    void flush() throws IOException {
+        flushBuffer();
+    }
+
+    private void writeEscaped(final String string, final boolean escapeSpace) throws IOException {
+        final int length = string.length();
+        for (int i = 0; i < length; i++) {
+            final char c = string.charAt(i);
+            if (c > 61 && c < 127) {
+                if (c == '\\') {
+                    write('\\');
+                }
+                write(c);
+                continue;
+            }
+            switch (c) {
+                case ' ':
+                    if (i == 0 || escapeSpace) {
+                        write('\\');
+                    }
+                    write(' ');
+                    break;
+                case '\t':
+                    write('\\');
+                    write('t');
+                    break;
+                case '\n':
+                    write('\\');
+                    write('n');
+                    break;
+                case '\r':
+                    write('\\');
+                    write('r');
+                    break;
+                case '\f':
+                    write('\\');
+                    write('f');
+                    break;
+                case '=':
+                case ':':
+                case '#':
+                case '!':
+                    write('\\');
+                    write(c);
+                    break;
+                default:
+                    if (c < 0x0020 || c > 0x007e) {
+                        writeUnicode(c);
+                    } else {
+                        write(c);
+                    }
+            }
+        }
+    }
+
+    private void writeUnicode(final char c) throws IOException {
+        write('\\');
+        write('u');
+        write(HEX[(c >> 12) & 0xF]);
+        write(HEX[(c >> 8) & 0xF]);
+        write(HEX[(c >> 4) & 0xF]);
+        write(HEX[c & 0xF]);
+    }
+
+    private void newLine() throws IOException {
+        for (final byte b : LINE_SEPARATOR) {
+            write(b);
+        }
+    }
+
+    private void write(final int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void flushBuffer() throws IOException {
+        byteBuffer.limit(position).position(0);
+        while (byteBuffer.hasRemaining()) {
+            channel.write(byteBuffer);
+        }
+        position = 0;
+    }
+}
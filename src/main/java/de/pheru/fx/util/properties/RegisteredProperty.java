@@ -0,0 +1,68 @@
+package de.pheru.fx.util.properties;
+
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.FloatProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.Property;
+import javafx.beans.property.StringProperty;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Property of a key together with its codec, resolved once when the property is created. The codec returns the value
+ * to store, the decoder sets the property from a stored value (the default value for null).
+ */
+final class RegisteredProperty {
+
+    final Property<?> property;
+    final Supplier<Object> codec;
+    final Consumer<Object> decoder;
+
+    RegisteredProperty(final Property<?> property, final Supplier<Object> codec, final Consumer<Object> decoder) {
+        this.property = property;
+        this.codec = codec;
+        this.decoder = decoder;
+    }
+
+    /**
+     * Throws an IllegalArgumentException if the given value cannot be set to the property without conversion, e.g. a
+     * Double for an IntegerProperty.
+     */
+    void checkValue(final String key, final Object value) {
+        final Class<?> type = valueType();
+        if (type != null && !type.isInstance(value)) {
+            throw new IllegalArgumentException("Value of " + value.getClass() + " does not match the " + type.getSimpleName()
+                    + " property of \"" + key + "\"!");
+        }
+    }
+
+    private Class<?> valueType() {
+        if (property instanceof StringProperty) {
+            return String.class;
+        } else if (property instanceof BooleanProperty) {
+            return Boolean.class;
+        } else if (property instanceof IntegerProperty) {
+            return Integer.class;
+        } else if (property instanceof LongProperty) {
+            return Long.class;
+        } else if (property instanceof FloatProperty) {
+            return Float.class;
+        } else if (property instanceof DoubleProperty) {
+            return Double.class;
+        }
+        //ObjectProperty: der Typ ist zur Laufzeit nicht bekannt, der StringConverter prüft den Wert
+        return null;
+    }
+
+    /**
+     * Sets the value of the property. A value of another type fails with a ClassCastException, use
+     * {@link #checkValue(String, Object)} to check it before.
+     */
+    @SuppressWarnings("unchecked") //Der Typ der Property ist nur zur Laufzeit bekannt
+    void setValue(final Object value) {
+        ((Property<Object>) property).setValue(value);
+    }
+}
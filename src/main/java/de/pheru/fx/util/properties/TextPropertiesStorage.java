@@ -0,0 +1,51 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Plain {@code .properties} files as read and written by {@link Properties}, with keys in alphabetical order.
+ */
+public class TextPropertiesStorage implements PropertiesStorage {
+
+    @Override
+    public void read(final Path file, final Map<String, Object> values) throws IOException {
+        final Properties properties = new Properties() {
+            @Override
+            public synchronized Object put(final Object key, final Object value) {
+                return values.put((String) key, (String) value);
+            }
+        };
+        try (final InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+    }
+
+    /**
+     * Writes the values in alphabetical key order. Sorted maps (like the one of {@link ObservableProperties}) are
+     * written as they are, other maps are sorted first.
+     */
+    @Override
+    public void write(final Path file, final Map<String, Object> values, final Collection<String> changedKeys,
+                      final String comments) throws IOException {
+        final Map<String, Object> sortedValues = values instanceof SortedMap ? values : new TreeMap<>(values);
+        PropertiesFiles.writeAtomically(file, channel -> {
+            final PropertiesWriter writer = new PropertiesWriter(channel);
+            if (comments != null) {
+                writer.writeComments(comments);
+            }
+            writer.writeDate();
+            for (final Map.Entry<String, Object> entry : sortedValues.entrySet()) {
+                writeEntry(writer, entry.getKey(), entry.getValue());
+            }
+            writer.flush();
+        });
+    }
+
+    void writeEntry(final PropertiesWriter writer, final String key, final Object value) throws IOException {
+        writer.writeEntry(key, value.toString());
+    }
+}
@@ -0,0 +1,192 @@
+package de.pheru.fx.util.properties;
+
+/**
+ * Parses stored values into primitives without boxing and without exceptions. Typed values are used directly,
+ * Strings are parsed with the grammar of {@link Integer#parseInt(String)}, {@link Double#parseDouble(String)} etc.,
+ * everything that does not match yields the default value.
+ */
+final class ValueParser {
+
+    private ValueParser() {
+    }
+
+    static boolean parseBoolean(final Object stored, final boolean defaultValue) {
+        if (stored instanceof Boolean) {
+            return (Boolean) stored;
+        }
+        return stored != null ? Boolean.parseBoolean(stored.toString()) : defaultValue;
+    }
+
+    static int parseInt(final Object stored, final int defaultValue) {
+        if (stored instanceof Integer) {
+            return (Integer) stored;
+        }
+        if (stored == null) {
+            return defaultValue;
+        }
+        final String string = stored.toString();
+        final int length = string.length();
+        if (length == 0) {
+            return defaultValue;
+        }
+        int i = 0;
+        final boolean negative = string.charAt(0) == '-';
+        if (negative || string.charAt(0) == '+') {
+            if (length == 1) {
+                return defaultValue;
+            }
+            i++;
+        }
+        //Negativ aufsummieren wie Integer.parseInt, damit auch MIN_VALUE ohne Überlauf passt
+        final int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        final int multiplyLimit = limit / 10;
+        int result = 0;
+        for (; i < length; i++) {
+            final int digit = Character.digit(string.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return defaultValue;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return defaultValue;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    static long parseLong(final Object stored, final long defaultValue) {
+        if (stored instanceof Long) {
+            return (Long) stored;
+        }
+        if (stored instanceof Integer) {
+            return (Integer) stored;
+        }
+        if (stored == null) {
+            return defaultValue;
+        }
+        final String string = stored.toString();
+        final int length = string.length();
+        if (length == 0) {
+            return defaultValue;
+        }
+        int i = 0;
+        final boolean negative = string.charAt(0) == '-';
+        if (negative || string.charAt(0) == '+') {
+            if (length == 1) {
+                return defaultValue;
+            }
+            i++;
+        }
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multiplyLimit = limit / 10;
+        long result = 0;
+        for (; i < length; i++) {
+            final int digit = Character.digit(string.charAt(i), 10);
+            if (digit < 0 || result < multiplyLimit) {
+                return defaultValue;
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return defaultValue;
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    static float parseFloat(final Object stored, final float defaultValue) {
+        if (stored instanceof Float) {
+            return (Float) stored;
+        }
+        if (stored == null) {
+            return defaultValue;
+        }
+        final String string = stored.toString();
+        return isFloatingPoint(string) ? Float.parseFloat(string) : defaultValue;
+    }
+
+    static double parseDouble(final Object stored, final double defaultValue) {
+        if (stored instanceof Double) {
+            return (Double) stored;
+        }
+        if (stored instanceof Float) {
+            return Double.parseDouble(stored.toString());
+        }
+        if (stored == null) {
+            return defaultValue;
+        }
+        final String string = stored.toString();
+        return isFloatingPoint(string) ? Double.parseDouble(string) : defaultValue;
+    }
+
+    /**
+     * Returns true if the given String is accepted by {@link Double#parseDouble(String)}.
+     */
+    static boolean isFloatingPoint(final String string) {
+        int start = 0;
+        int end = string.length();
+        while (start < end && string.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && string.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int i = start;
+        if (i < end && (string.charAt(i) == '+' || string.charAt(i) == '-')) {
+            i++;
+        }
+        if (string.startsWith("NaN", i)) {
+            return i + 3 == end;
+        }
+        if (string.startsWith("Infinity", i)) {
+            return i + 8 == end;
+        }
+        final boolean hex = end - i > 2 && string.charAt(i) == '0' && (string.charAt(i + 1) == 'x' || string.charAt(i + 1) == 'X');
+        if (hex) {
+            i += 2;
+        }
+        final int radix = hex ? 16 : 10;
+        int digits = 0;
+        while (i < end && isDigit(string.charAt(i), radix)) {
+            i++;
+            digits++;
+        }
+        if (i < end && string.charAt(i) == '.') {
+            i++;
+            while (i < end && isDigit(string.charAt(i), radix)) {
+                i++;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            return false;
+        }
+        final char exponent = i < end ? string.charAt(i) : 0;
+        if (hex ? exponent == 'p' || exponent == 'P' : exponent == 'e' || exponent == 'E') {
+            i++;
+            if (i < end && (string.charAt(i) == '+' || string.charAt(i) == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && isDigit(string.charAt(i), 10)) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        } else if (hex) {
+            //Hexadezimale Gleitkommazahlen brauchen einen Exponenten
+            return false;
+        }
+        if (i < end && "fFdD".indexOf(string.charAt(i)) >= 0) {
+            i++;
+        }
+        return i == end;
+    }
+
+    private static boolean isDigit(final char c, final int radix) {
+        return c >= '0' && c <= '9' || radix == 16 && (c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F');
+    }
+}
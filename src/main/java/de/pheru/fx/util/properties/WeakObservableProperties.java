@@ -0,0 +1,51 @@
+package de.pheru.fx.util.properties;
+
+import javafx.beans.property.Property;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Variant of {@link ObservableProperties} with bounded memory for stores with many keys that are only used for a
+ * short time. The properties are held weakly: once nothing references or binds to a property any more, it can be
+ * garbage collected and is created again from the stored value the next time it is requested. To keep the latest
+ * value of a collected property, every change is stored immediately instead of when saving.
+ * <p>
+ * A bound property (e.g. {@code doubleProperty("window.x", 0).bind(stage.xProperty())}) is held strongly until it is
+ * unbound, because the binding itself only references it weakly. Listeners added to a property do not keep it, and
+ * bidirectional bindings hold both properties weakly, so such a property has to be referenced elsewhere as long as
+ * the listener or binding is needed.
+ */
+public class WeakObservableProperties extends ObservableProperties {
+
+    private static final int MIN_SWEEP_SIZE = 16;
+
+    private final Set<Property<?>> boundProperties = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int sweepSize = MIN_SWEEP_SIZE;
+
+    public WeakObservableProperties() {
+        this(new TextPropertiesStorage());
+    }
+
+    public WeakObservableProperties(final PropertiesStorage storage) {
+        //Die Property hält ihren Eintrag über den eigenen Listener, der Eintrag lebt also genau so lange wie die Property
+        super(storage, new TreeMap<>(), new WeakValueMap<>(), true);
+    }
+
+    @Override
+    void propertyInvalidated(final RegisteredProperty registeredProperty) {
+        final Property<?> property = registeredProperty.property;
+        synchronized (boundProperties) {
+            if (!property.isBound()) {
+                boundProperties.remove(property);
+            } else if (boundProperties.add(property) && boundProperties.size() >= sweepSize) {
+                //unbind() benachrichtigt keine Listener: nicht mehr gebundene Properties, die sich seitdem nicht
+                //geändert haben, werden hier freigegeben. Die Grenze wächst mit, so kostet ein bind() im Mittel O(1).
+                boundProperties.removeIf(boundProperty -> !boundProperty.isBound());
+                sweepSize = Math.max(MIN_SWEEP_SIZE, 2 * boundProperties.size());
+            }
+        }
+    }
+}
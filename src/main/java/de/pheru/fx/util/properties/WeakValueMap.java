@@ -0,0 +1,86 @@
+package de.pheru.fx.util.properties;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+/**
+ * Map that holds its values weakly. An entry disappears as soon as its value has been garbage collected; collected
+ * entries are removed from the map on the next modification. Like a HashMap, the map is not thread-safe.
+ */
+final class WeakValueMap<K, V> extends AbstractMap<K, V> {
+
+    private final Map<K, Value<K, V>> values = new HashMap<>();
+    private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+
+    @Override
+    public V get(final Object key) {
+        final Value<K, V> value = values.get(key);
+        return value != null ? value.get() : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public V put(final K key, final V value) {
+        expunge();
+        return valueOf(values.put(key, new Value<>(key, value, queue)));
+    }
+
+    @Override
+    public V remove(final Object key) {
+        expunge();
+        return valueOf(values.remove(key));
+    }
+
+    @Override
+    public void clear() {
+        values.clear();
+        while (queue.poll() != null) {
+            //Verworfene Referenzen nur aus der Queue entfernen
+        }
+    }
+
+    /**
+     * Returns a snapshot of the entries whose values have not been collected yet.
+     */
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        expunge();
+        final Set<Entry<K, V>> entries = new HashSet<>();
+        for (final Value<K, V> value : values.values()) {
+            final V referent = value.get();
+            if (referent != null) {
+                entries.add(new SimpleImmutableEntry<>(value.key, referent));
+            }
+        }
+        return entries;
+    }
+
+    private void expunge() {
+        Reference<? extends V> reference;
+        while ((reference = queue.poll()) != null) {
+            final Value<?, ?> value = (Value<?, ?>) reference;
+            //Nur entfernen, wenn der Schlüssel nicht inzwischen neu belegt wurde
+            values.remove(value.key, value);
+        }
+    }
+
+    private V valueOf(final Value<K, V> value) {
+        return value != null ? value.get() : null;
+    }
+
+    private static final class Value<K, V> extends WeakReference<V> {
+
+        private final K key;
+
+        private Value(final K key, final V referent, final ReferenceQueue<V> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+}
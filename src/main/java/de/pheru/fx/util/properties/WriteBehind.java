@@ -0,0 +1,95 @@
+package de.pheru.fx.util.properties;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Coalesces changes of an {@link ObservableProperties} and writes them on a background executor once the given delay
+ * after the first change has passed.
+ */
+class WriteBehind {
+
+    private final ObservableProperties observableProperties;
+    private final String comments;
+    private final long delay;
+    private final TimeUnit unit;
+    private final ScheduledExecutorService executor;
+    private final boolean ownExecutor;
+    private final AtomicBoolean pending = new AtomicBoolean(false);
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+    private final Thread shutdownHook;
+    private volatile ScheduledFuture<?> scheduledWrite;
+
+    WriteBehind(final ObservableProperties observableProperties, final String comments, final long delay, final TimeUnit unit,
+                final ScheduledExecutorService executor) {
+        this.observableProperties = observableProperties;
+        this.comments = comments;
+        this.delay = delay;
+        this.unit = unit;
+        this.ownExecutor = executor == null;
+        this.executor = executor != null ? executor : Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+            final Thread thread = new Thread(runnable, "ObservableProperties-WriteBehind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.shutdownHook = new Thread(() -> {
+            try {
+                flush();
+            } catch (final IOException ignored) {
+                //Beim Beenden der JVM kann der Fehler nicht mehr gemeldet werden
+            }
+        }, "ObservableProperties-WriteBehind-Shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    void changed() {
+        if (pending.compareAndSet(false, true)) {
+            scheduledWrite = executor.schedule(this::write, delay, unit);
+        }
+    }
+
+    void flush() throws IOException {
+        if (pending.getAndSet(false)) {
+            final ScheduledFuture<?> scheduled = scheduledWrite;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+            observableProperties.store(comments);
+        }
+        final IOException lastFailure = failure.getAndSet(null);
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+    }
+
+    void shutdown() throws IOException {
+        try {
+            flush();
+        } finally {
+            if (ownExecutor) {
+                executor.shutdown();
+            }
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (final IllegalStateException ignored) {
+                //JVM wird bereits beendet
+            }
+        }
+    }
+
+    private void write() {
+        //Vor dem Schreiben zurücksetzen, damit Änderungen während des Schreibens erneut einplanen
+        if (pending.getAndSet(false)) {
+            try {
+                observableProperties.store(comments);
+            } catch (final IOException e) {
+                failure.set(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package de.pheru.fx.util.focus;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Bounds;
+import javafx.scene.Node;
+import javafx.scene.control.Control;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.control.SelectionMode;
+import javafx.scene.control.Skin;
+import javafx.scene.control.SkinBase;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TablePosition;
+import javafx.scene.control.TableView;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.pheru.fx.util.focus.FxTestSupport.*;
+import static org.junit.Assert.*;
+
+public class CellTraversalTest {
+
+    private static final int ROWS = 1000;
+
+    private Stage stage;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        startFx();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        onFxThread(() -> {
+            FocusTraversal.setDispatchMode(FocusTraversal.DispatchMode.NODE);
+            FocusTraversalGroup.removeFocusTraversalGroup("cells");
+            if (stage != null) {
+                stage.close();
+            }
+        });
+    }
+
+    @Test
+    public void listViewRows() throws Exception {
+        onFxThread(() -> {
+            final ListView<Integer> listView = createListView();
+            stage = show(listView);
+            final AtomicInteger unconsumed = countUnconsumed(listView);
+            listView.requestFocus();
+            listView.getFocusModel().focus(0);
+
+            tab(false);
+            assertEquals(1, listView.getFocusModel().getFocusedIndex());
+            tab(true);
+            tab(true);
+            assertEquals(0, listView.getFocusModel().getFocusedIndex());
+            //Shift+TAB in der ersten Zeile bleibt für die umgebende Traversierung
+            assertEquals(1, unconsumed.get());
+
+            listView.getFocusModel().focus(ROWS - 1);
+            tab(false);
+            assertEquals(ROWS - 1, listView.getFocusModel().getFocusedIndex());
+            assertEquals(2, unconsumed.get());
+        });
+    }
+
+    @Test
+    public void tableViewWrapsColumns() throws Exception {
+        onFxThread(() -> {
+            final TableView<Integer> tableView = createTableView();
+            stage = show(tableView);
+            final AtomicInteger unconsumed = countUnconsumed(tableView);
+            final TableColumn<Integer, ?> first = tableView.getVisibleLeafColumn(0);
+            final TableColumn<Integer, ?> second = tableView.getVisibleLeafColumn(1);
+            tableView.requestFocus();
+            tableView.getFocusModel().focus(0, first);
+
+            tab(false);
+            assertFocusedCell(tableView, 0, second);
+            tab(false);
+            assertFocusedCell(tableView, 1, first);
+            tab(true);
+            assertFocusedCell(tableView, 0, second);
+            tab(true);
+            tab(true);
+            assertFocusedCell(tableView, 0, first);
+            assertEquals(1, unconsumed.get());
+
+            //Ausgeblendete Spalten werden übersprungen
+            second.setVisible(false);
+            tab(false);
+            assertFocusedCell(tableView, 1, first);
+
+            tableView.getFocusModel().focus(ROWS - 1, first);
+            tab(false);
+            assertFocusedCell(tableView, ROWS - 1, first);
+            assertEquals(2, unconsumed.get());
+        });
+    }
+
+    @Test
+    public void selectionIsKept() throws Exception {
+        onFxThread(() -> {
+            final ListView<Integer> listView = createListView();
+            listView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+            stage = show(listView);
+            listView.getSelectionModel().selectIndices(2, 5);
+            listView.requestFocus();
+            listView.getFocusModel().focus(7);
+
+            tab(false);
+            tab(false);
+            assertEquals(9, listView.getFocusModel().getFocusedIndex());
+            assertEquals(Arrays.asList(2, 5), listView.getSelectionModel().getSelectedIndices());
+
+            final TableView<Integer> tableView = createTableView();
+            tableView.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+            stage.getScene().setRoot(new Pane(tableView));
+            tableView.getSelectionModel().selectIndices(3, 4);
+            tableView.requestFocus();
+            tableView.getFocusModel().focus(0, tableView.getVisibleLeafColumn(0));
+            tab(false);
+            tab(false);
+            assertEquals(1, tableView.getFocusModel().getFocusedIndex());
+            assertEquals(Arrays.asList(3, 4), tableView.getSelectionModel().getSelectedIndices());
+        });
+    }
+
+    @Test
+    public void scrollsFocusedRowIntoView() throws Exception {
+        onFxThread(() -> {
+            final ListView<Integer> listView = createListView();
+            stage = show(listView);
+            listView.requestFocus();
+            listView.getFocusModel().focus(0);
+            listView.layout();
+
+            for (int i = 1; i <= 40; i++) {
+                tab(false);
+                listView.layout();
+                assertTrue("Row " + i, isFullyShown(listView, ".list-cell", i));
+            }
+            for (int i = 39; i >= 0; i--) {
+                tab(true);
+                listView.layout();
+                assertTrue("Row " + i, isFullyShown(listView, ".list-cell", i));
+            }
+        });
+    }
+
+    @Test
+    public void cellsBeforeGroupInSceneDispatchMode() throws Exception {
+        onFxThread(() -> {
+            FocusTraversal.setDispatchMode(FocusTraversal.DispatchMode.SCENE);
+            final ListView<Integer> listView = createListView();
+            listView.setItems(FXCollections.observableArrayList(0, 1, 2));
+            final Region after = new Region();
+            after.setFocusTraversable(true);
+            stage = show(listView, after);
+            FocusTraversal.installSceneDispatcher(stage.getScene());
+            new FocusTraversalGroup("cells", listView, after);
+            listView.requestFocus();
+            listView.getFocusModel().focus(0);
+
+            tab(false);
+            assertTrue(listView.isFocused());
+            assertEquals(1, listView.getFocusModel().getFocusedIndex());
+            tab(false);
+            assertEquals(2, listView.getFocusModel().getFocusedIndex());
+            //Letzte Zeile: die Gruppe übernimmt
+            tab(false);
+            assertTrue(after.isFocused());
+        });
+    }
+
+    /**
+     * ListView with a real VirtualFlow, but cells without text, so that no fonts are needed.
+     */
+    private static ListView<Integer> createListView() {
+        final ListView<Integer> listView = new ListView<>(items());
+        listView.setPrefSize(200, 150);
+        listView.setCellFactory(view -> new ListCell<Integer>() {
+            {
+                setPrefHeight(20);
+            }
+
+            @Override
+            protected Skin<?> createDefaultSkin() {
+                return new SkinBase<ListCell<Integer>>(this) {
+                };
+            }
+        });
+        CellTraversal.setCellTraversalForListView(listView);
+        return listView;
+    }
+
+    /**
+     * TableView without skin (the column headers would need fonts), the traversal only uses the focus model.
+     */
+    private static TableView<Integer> createTableView() {
+        final TableView<Integer> tableView = new TableView<>(items());
+        tableView.getColumns().add(new TableColumn<>("first"));
+        tableView.getColumns().add(new TableColumn<>("second"));
+        tableView.setPrefSize(200, 150);
+        tableView.setSkin(new SkinBase<TableView<Integer>>(tableView) {
+        });
+        CellTraversal.setCellTraversalForTableView(tableView);
+        return tableView;
+    }
+
+    private static ObservableList<Integer> items() {
+        final ObservableList<Integer> items = FXCollections.observableArrayList();
+        for (int i = 0; i < ROWS; i++) {
+            items.add(i);
+        }
+        return items;
+    }
+
+    private static void assertFocusedCell(final TableView<Integer> tableView, final int row, final TableColumn<Integer, ?> column) {
+        final TablePosition<?, ?> focusedCell = tableView.getFocusModel().getFocusedCell();
+        assertEquals(row, focusedCell.getRow());
+        assertSame(column, focusedCell.getTableColumn());
+    }
+
+    private static boolean isFullyShown(final ListView<?> listView, final String cellSelector, final int row) {
+        final Node flow = listView.lookup(".virtual-flow");
+        final Bounds viewport = flow.localToScene(flow.getLayoutBounds());
+        for (final Node node : listView.lookupAll(cellSelector)) {
+            if (node instanceof IndexedCell && node.isVisible() && ((IndexedCell<?>) node).getIndex() == row) {
+                final Bounds cellBounds = node.localToScene(node.getLayoutBounds());
+                return cellBounds.getMinY() >= viewport.getMinY() && cellBounds.getMaxY() <= viewport.getMaxY();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zählt die KeyEvents, die die Zell-Traversierung nicht konsumiert. Der Filter läuft nach dem Filter der
+     * Zell-Traversierung; die Behavior des Controls konsumiert TAB erst danach selbst.
+     */
+    private AtomicInteger countUnconsumed(final Control control) {
+        final AtomicInteger unconsumed = new AtomicInteger();
+        control.addEventFilter(KeyEvent.KEY_PRESSED, event -> {
+            if (!event.isConsumed()) {
+                unconsumed.incrementAndGet();
+            }
+        });
+        return unconsumed;
+    }
+
+    private void tab(final boolean shift) {
+        press(stage.getScene(), KeyCode.TAB, shift, false);
+    }
+}
@@ -0,0 +1,103 @@
+package de.pheru.fx.util.focus;
+
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.ref.WeakReference;
+
+import static de.pheru.fx.util.focus.FxTestSupport.*;
+import static org.junit.Assert.*;
+
+public class FocusTraversalGroupRegistryTest {
+
+    private Stage stage;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        startFx();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        onFxThread(() -> {
+            FocusTraversalGroup.removeFocusTraversalGroup("registry");
+            if (stage != null) {
+                stage.close();
+            }
+        });
+    }
+
+    @Test
+    public void countsFollowTheScene() throws Exception {
+        onFxThread(() -> {
+            final int groups = FocusTraversalGroup.getRegisteredGroupCount();
+            final int nodes = FocusTraversalGroup.getRegisteredNodeCount();
+            final Region[] regions = createNodes(3);
+            final Pane root = new Pane(regions);
+            stage = show(root);
+            final FocusTraversalGroup group = new FocusTraversalGroup("registry", regions);
+            assertEquals(groups + 1, FocusTraversalGroup.getRegisteredGroupCount());
+            assertEquals(nodes + 3, FocusTraversalGroup.getRegisteredNodeCount());
+            assertSame(group, FocusTraversalGroup.getFocusTraversalGroup("registry"));
+
+            //Solange eine Node in der Scene ist, bleibt die Gruppe registriert
+            root.getChildren().removeAll(regions[0], regions[1]);
+            assertEquals(groups + 1, FocusTraversalGroup.getRegisteredGroupCount());
+            root.getChildren().remove(regions[2]);
+            assertEquals(groups, FocusTraversalGroup.getRegisteredGroupCount());
+            assertEquals(nodes, FocusTraversalGroup.getRegisteredNodeCount());
+            assertNull(FocusTraversalGroup.getFocusTraversalGroup("registry"));
+
+            root.getChildren().add(regions[1]);
+            assertEquals(groups + 1, FocusTraversalGroup.getRegisteredGroupCount());
+            assertEquals(nodes + 3, FocusTraversalGroup.getRegisteredNodeCount());
+            assertSame(group, FocusTraversalGroup.getFocusTraversalGroup("registry"));
+        });
+    }
+
+    @Test
+    public void groupIsReleasedWeakly() throws Exception {
+        final WeakReference<FocusTraversalGroup> reference = onFxThread(() -> {
+            final Region[] regions = createNodes(2);
+            final Pane root = new Pane(regions);
+            stage = show(root);
+            final FocusTraversalGroup group = new FocusTraversalGroup("registry", regions);
+            root.getChildren().clear();
+            return new WeakReference<>(group);
+        });
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+        assertNull(onFxThread(() -> FocusTraversalGroup.getFocusTraversalGroup("registry")));
+    }
+
+    @Test
+    public void groupInSceneIsKept() throws Exception {
+        final WeakReference<FocusTraversalGroup> reference = onFxThread(() -> {
+            final Region[] regions = createNodes(2);
+            stage = show(regions);
+            return new WeakReference<>(new FocusTraversalGroup("registry", regions));
+        });
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNotNull(reference.get());
+        assertSame(reference.get(), onFxThread(() -> FocusTraversalGroup.getFocusTraversalGroup("registry")));
+    }
+
+    private static Region[] createNodes(final int count) {
+        final Region[] nodes = new Region[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new Region();
+            nodes[i].setFocusTraversable(true);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,313 @@
+package de.pheru.fx.util.focus;
+
+import javafx.scene.Node;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.pheru.fx.util.focus.FxTestSupport.*;
+import static org.junit.Assert.*;
+
+public class FocusTraversalGroupTest {
+
+    private final List<FocusTraversalGroup> groups = new ArrayList<>();
+    private Stage stage;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        startFx();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        onFxThread(() -> {
+            for (final FocusTraversalGroup group : groups) {
+                FocusTraversalGroup.removeFocusTraversalGroup(group.getName());
+            }
+            if (stage != null) {
+                stage.close();
+            }
+        });
+    }
+
+    @Test
+    public void tabSkipsInactiveNodes() throws Exception {
+        onFxThread(() -> {
+            final Region[] nodes = createNodes(5);
+            stage = show(nodes);
+            group("tab", nodes);
+            nodes[1].setVisible(false);
+            nodes[2].setDisable(true);
+            nodes[0].requestFocus();
+
+            tab(false);
+            assertTrue(nodes[3].isFocused());
+            tab(false);
+            tab(false);
+            assertTrue(nodes[0].isFocused());
+            tab(true);
+            assertTrue(nodes[4].isFocused());
+            nodes[1].setVisible(true);
+            nodes[0].requestFocus();
+            tab(false);
+            assertTrue(nodes[1].isFocused());
+        });
+    }
+
+    @Test
+    public void layoutOrders() throws Exception {
+        onFxThread(() -> {
+            //2x2-Raster, eingefügt in umgekehrter Reihenfolge, kleine Abweichungen innerhalb eines Buckets
+            final Region[] nodes = createNodes(4);
+            nodes[0].relocate(0, 0);
+            nodes[1].relocate(100, 3);
+            nodes[2].relocate(2, 100);
+            nodes[3].relocate(100, 100);
+            stage = show(nodes);
+            final FocusTraversalGroup group = group("layout", nodes[3], nodes[2], nodes[1], nodes[0]);
+
+            group.setOrder(FocusTraversalOrder.READING);
+            nodes[0].requestFocus();
+            tab(false);
+            assertTrue(nodes[1].isFocused());
+            tab(false);
+            assertTrue(nodes[2].isFocused());
+
+            group.setOrder(FocusTraversalOrder.COLUMNS);
+            nodes[0].requestFocus();
+            tab(false);
+            assertTrue(nodes[2].isFocused());
+            tab(false);
+            assertTrue(nodes[1].isFocused());
+
+            //Verschobene Node wird beim nächsten Tastendruck neu einsortiert
+            nodes[2].relocate(200, 100);
+            nodes[0].requestFocus();
+            tab(false);
+            assertTrue(nodes[1].isFocused());
+
+            group.setOrder(FocusTraversalOrder.INSERTION);
+            nodes[0].requestFocus();
+            tab(false);
+            assertTrue(nodes[3].isFocused());
+        });
+    }
+
+    @Test
+    public void readingOrderFollowsMovedContainers() throws Exception {
+        onFxThread(() -> {
+            final Region[] fields = createNodes(3);
+            final Pane[] rows = new Pane[3];
+            for (int i = 0; i < rows.length; i++) {
+                rows[i] = new Pane(fields[i]);
+                rows[i].relocate(0, i * 50);
+            }
+            stage = show(rows);
+            final FocusTraversalGroup group = group("reading", fields[2], fields[1], fields[0]);
+            group.setOrder(FocusTraversalOrder.READING);
+            fields[1].requestFocus();
+            tab(false);
+            assertTrue(fields[2].isFocused());
+
+            //Nur die Zeile bewegt sich, die boundsInParent der Felder bleiben gleich
+            rows[0].relocate(0, 75);
+            fields[1].requestFocus();
+            tab(false);
+            assertTrue(fields[0].isFocused());
+            tab(false);
+            assertTrue(fields[2].isFocused());
+        });
+    }
+
+    @Test
+    public void nestedGroup() throws Exception {
+        onFxThread(() -> {
+            final Region[] inner = createNodes(2);
+            final Pane container = new Pane(inner);
+            final Region before = createNodes(1)[0];
+            final Region after = createNodes(1)[0];
+            stage = show(before, container, after);
+            group("outer", before, container, after);
+            final FocusTraversalGroup nested = group("nested", inner);
+            nested.setContainer(container);
+            assertSame(groups.get(0), nested.getParentGroup());
+            before.requestFocus();
+
+            tab(false);
+            assertTrue(inner[0].isFocused());
+            tab(false);
+            assertTrue(inner[1].isFocused());
+            //Zyklisch: TAB bleibt in der verschachtelten Gruppe
+            tab(false);
+            assertTrue(inner[0].isFocused());
+            press(stage.getScene(), KeyCode.TAB, false, true);
+            assertTrue(after.isFocused());
+            tab(true);
+            assertTrue(inner[1].isFocused());
+
+            nested.setCyclic(false);
+            tab(false);
+            assertTrue(after.isFocused());
+            inner[0].requestFocus();
+            tab(true);
+            assertTrue(before.isFocused());
+        });
+    }
+
+    @Test
+    public void nestedGroupWithoutFocusableNodeIsSkipped() throws Exception {
+        onFxThread(() -> {
+            final Region[] inner = createNodes(2);
+            final Pane container = new Pane(inner);
+            final Region before = createNodes(1)[0];
+            final Region after = createNodes(1)[0];
+            stage = show(before, container, after);
+            group("outerSkip", before, container, after);
+            group("nestedSkip", inner).setContainer(container);
+            inner[0].setDisable(true);
+            inner[1].setVisible(false);
+            before.requestFocus();
+
+            tab(false);
+            assertTrue(after.isFocused());
+        });
+    }
+
+    @Test
+    public void batchUpdateKeepsHandlersOfRemainingNodes() throws Exception {
+        onFxThread(() -> {
+            final Region[] nodes = createNodes(4);
+            stage = show(nodes);
+            final FocusTraversalGroup group = group("batch", nodes[0], nodes[1], nodes[2]);
+            final int handlers = FocusTraversal.getMetrics().getHandlerCount();
+
+            group.beginUpdate();
+            group.getNodes().remove(nodes[1]);
+            group.beginUpdate();
+            group.getNodes().add(0, nodes[3]);
+            group.getNodes().add(nodes[1]);
+            group.getNodes().remove(nodes[1]);
+            group.commitUpdate();
+            //Erst das äußerste commitUpdate übernimmt die Änderungen
+            assertSame(group, FocusTraversalGroup.getFocusTraversalGroup(nodes[1]));
+            assertNull(FocusTraversalGroup.getFocusTraversalGroup(nodes[3]));
+            group.commitUpdate();
+
+            assertNull(FocusTraversalGroup.getFocusTraversalGroup(nodes[1]));
+            assertSame(group, FocusTraversalGroup.getFocusTraversalGroup(nodes[3]));
+            assertEquals(handlers, FocusTraversal.getMetrics().getHandlerCount());
+            nodes[2].requestFocus();
+            tab(false);
+            assertTrue(nodes[3].isFocused());
+            tab(false);
+            assertTrue(nodes[0].isFocused());
+
+            group.replaceAll(Arrays.asList(nodes[2], nodes[1]));
+            assertEquals(handlers - 1, FocusTraversal.getMetrics().getHandlerCount());
+            nodes[1].requestFocus();
+            tab(false);
+            assertTrue(nodes[2].isFocused());
+        });
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void commitWithoutUpdate() throws Exception {
+        onFxThread(() -> group("noUpdate").commitUpdate());
+    }
+
+    @Test
+    public void gridPolicy() throws Exception {
+        onFxThread(() -> {
+            final Region[] nodes = createNodes(9);
+            stage = show(nodes);
+            final FocusTraversalGroup group = group("grid", nodes);
+            group.setPolicy(FocusTraversalPolicy.grid(3));
+            final AtomicInteger unconsumed = countUnconsumed();
+            nodes[0].requestFocus();
+
+            press(stage.getScene(), KeyCode.DOWN, false, false);
+            assertTrue(nodes[3].isFocused());
+            press(stage.getScene(), KeyCode.RIGHT, false, false);
+            assertTrue(nodes[4].isFocused());
+            assertEquals(0, unconsumed.get());
+            nodes[1].setVisible(false);
+            press(stage.getScene(), KeyCode.UP, false, false);
+            //Keine fokussierbare Node darüber: die Gruppe behandelt die Taste nicht
+            assertEquals(1, unconsumed.get());
+            nodes[7].setDisable(true);
+            nodes[4].requestFocus();
+            press(stage.getScene(), KeyCode.DOWN, false, false);
+            assertEquals(2, unconsumed.get());
+            press(stage.getScene(), KeyCode.END, false, false);
+            assertTrue(nodes[8].isFocused());
+            press(stage.getScene(), KeyCode.HOME, false, false);
+            assertTrue(nodes[0].isFocused());
+            press(stage.getScene(), KeyCode.ENTER, true, false);
+            assertTrue(nodes[8].isFocused());
+            nodes[4].requestFocus();
+            nodes[1].setVisible(true);
+            press(stage.getScene(), KeyCode.UP, false, false);
+            assertTrue(nodes[1].isFocused());
+        });
+    }
+
+    @Test
+    public void unboundKeysAreNotConsumed() throws Exception {
+        onFxThread(() -> {
+            final Region[] nodes = createNodes(3);
+            stage = show(nodes);
+            final FocusTraversalGroup group = group("unbound", nodes);
+            group.setPolicy(new FocusTraversalPolicy().unbind(KeyCode.TAB, true).bind(KeyCode.F2, false,
+                    FocusTraversalDirection.LAST));
+            final AtomicInteger unconsumed = countUnconsumed();
+            nodes[0].requestFocus();
+
+            press(stage.getScene(), KeyCode.F2, false, false);
+            assertTrue(nodes[2].isFocused());
+            assertEquals(0, unconsumed.get());
+            press(stage.getScene(), KeyCode.TAB, true, false);
+            press(stage.getScene(), KeyCode.DOWN, false, false);
+            press(stage.getScene(), KeyCode.F2, false, true);
+            assertEquals(3, unconsumed.get());
+        });
+    }
+
+    private FocusTraversalGroup group(final String name, final Node... nodes) {
+        final FocusTraversalGroup group = new FocusTraversalGroup(name, nodes);
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * Counts the key events that reach the scene, i.e. that have not been consumed by a traversal.
+     */
+    private AtomicInteger countUnconsumed() {
+        final AtomicInteger unconsumed = new AtomicInteger();
+        stage.getScene().addEventHandler(KeyEvent.KEY_PRESSED, event -> unconsumed.incrementAndGet());
+        return unconsumed;
+    }
+
+    private void tab(final boolean shift) {
+        press(stage.getScene(), KeyCode.TAB, shift, false);
+    }
+
+    private static Region[] createNodes(final int count) {
+        final Region[] nodes = new Region[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new Region();
+            nodes[i].setFocusTraversable(true);
+            nodes[i].resize(10, 10);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,147 @@
+package de.pheru.fx.util.focus;
+
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static de.pheru.fx.util.focus.FxTestSupport.onFxThread;
+import static de.pheru.fx.util.focus.FxTestSupport.startFx;
+import static org.junit.Assert.*;
+
+public class FocusTraversalIndexTest {
+
+    private static final int NODE_COUNT = 23;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        startFx();
+    }
+
+    @Test
+    public void incrementalTablesMatchFullComputation() throws Exception {
+        onFxThread(() -> {
+            assertRandomChangesMatchFullComputation(0, false);
+            assertRandomChangesMatchFullComputation(5, false);
+        });
+    }
+
+    @Test
+    public void incrementalTablesMatchFullComputationWithDuplicates() throws Exception {
+        onFxThread(() -> {
+            assertRandomChangesMatchFullComputation(0, true);
+            assertRandomChangesMatchFullComputation(4, true);
+        });
+    }
+
+    @Test
+    public void noFocusableNode() throws Exception {
+        onFxThread(() -> {
+            final List<Node> nodes = createNodes(3);
+            for (final Node node : nodes) {
+                node.setVisible(false);
+            }
+            final FocusTraversalIndex index = new FocusTraversalIndex(inScene -> {
+            });
+            index.update(nodes);
+            assertNull(index.first());
+            assertNull(index.last());
+            assertNull(index.next(nodes.get(0)));
+            nodes.get(1).setVisible(true);
+            assertSame(nodes.get(1), index.next(nodes.get(1)));
+            assertSame(nodes.get(1), index.previous(nodes.get(0)));
+            assertSame(nodes.get(1), index.first());
+        });
+    }
+
+    @Test
+    public void sceneListener() throws Exception {
+        onFxThread(() -> {
+            final List<Boolean> events = new ArrayList<>();
+            final List<Node> nodes = createNodes(2);
+            final Pane root = (Pane) nodes.get(0).getParent();
+            final FocusTraversalIndex index = new FocusTraversalIndex(events::add);
+            index.update(nodes);
+            assertEquals(Arrays.asList(true), events);
+
+            root.getChildren().remove(nodes.get(0));
+            assertEquals(Arrays.asList(true), events);
+            root.getChildren().remove(nodes.get(1));
+            assertEquals(Arrays.asList(true, false), events);
+            root.getChildren().add(nodes.get(1));
+            assertEquals(Arrays.asList(true, false, true), events);
+            index.clear();
+            assertEquals(Arrays.asList(true, false, true, false), events);
+        });
+    }
+
+    private static void assertRandomChangesMatchFullComputation(final int columns, final boolean duplicates) {
+        final Random random = new Random(columns);
+        final List<Node> distinctNodes = createNodes(NODE_COUNT);
+        final Pane root = (Pane) distinctNodes.get(0).getParent();
+        final List<Node> nodes = new ArrayList<>(distinctNodes);
+        if (duplicates) {
+            nodes.add(distinctNodes.get(3));
+            nodes.add(7, distinctNodes.get(15));
+        }
+        final FocusTraversalIndex index = new FocusTraversalIndex(inScene -> {
+        });
+        index.update(nodes);
+        index.setColumns(columns);
+        assertSameTables(nodes, columns, index);
+        for (int i = 0; i < 500; i++) {
+            final Node node = distinctNodes.get(random.nextInt(distinctNodes.size()));
+            switch (random.nextInt(3)) {
+                case 0:
+                    node.setVisible(!node.isVisible());
+                    break;
+                case 1:
+                    node.setDisable(!node.isDisable());
+                    break;
+                default:
+                    if (node.getScene() != null) {
+                        root.getChildren().remove(node);
+                    } else {
+                        root.getChildren().add(node);
+                    }
+            }
+            assertSameTables(nodes, columns, index);
+        }
+        index.clear();
+    }
+
+    /**
+     * Compares the incrementally maintained index with a new one, which computes all tables at once.
+     */
+    private static void assertSameTables(final List<Node> nodes, final int columns, final FocusTraversalIndex index) {
+        final FocusTraversalIndex expected = new FocusTraversalIndex(inScene -> {
+        });
+        expected.update(nodes);
+        expected.setColumns(columns);
+        assertSame(expected.first(), index.first());
+        assertSame(expected.last(), index.last());
+        for (final Node node : nodes) {
+            assertSame(expected.next(node), index.next(node));
+            assertSame(expected.previous(node), index.previous(node));
+            assertSame(expected.up(node), index.up(node));
+            assertSame(expected.down(node), index.down(node));
+        }
+        expected.clear();
+    }
+
+    private static List<Node> createNodes(final int count) {
+        final List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            nodes.add(new Region());
+        }
+        new Scene(new Pane(nodes.toArray(new Node[count])));
+        return nodes;
+    }
+}
@@ -0,0 +1,128 @@
+package de.pheru.fx.util.focus;
+
+import javafx.scene.input.KeyCode;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static de.pheru.fx.util.focus.FxTestSupport.*;
+import static org.junit.Assert.*;
+
+public class FocusTraversalMetricsTest {
+
+    private final FocusTraversalMetrics metrics = FocusTraversal.getMetrics();
+    private Stage stage;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        startFx();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        onFxThread(() -> {
+            metrics.setEnabled(false);
+            metrics.reset();
+            FocusTraversalGroup.removeFocusTraversalGroup("metrics");
+            if (stage != null) {
+                stage.close();
+            }
+        });
+    }
+
+    @Test
+    public void countsTraversals() throws Exception {
+        onFxThread(() -> {
+            final Region[] nodes = createNodes(5);
+            stage = show(nodes);
+            new FocusTraversalGroup("metrics", nodes);
+            nodes[1].setVisible(false);
+            nodes[2].setDisable(true);
+            metrics.reset();
+            metrics.setEnabled(true);
+            nodes[0].requestFocus();
+
+            tab();
+            assertTrue(nodes[3].isFocused());
+            tab();
+            assertTrue(nodes[4].isFocused());
+
+            assertEquals(2, metrics.getTraversalCount());
+            assertEquals(2, metrics.getRequestFocusAttempts());
+            assertEquals(1, metrics.getMaxRequestFocusAttempts());
+            assertEquals(1.0, metrics.getAverageRequestFocusAttempts(), 0.0);
+            //Die unsichtbare und die deaktivierte Node
+            assertEquals(2, metrics.getSkippedNodes());
+            assertEquals(2, sum(metrics.getLatencyHistogram()));
+            assertTrue(metrics.getLatencyPercentileMicros(100) > 0);
+
+            metrics.reset();
+            assertEquals(0, metrics.getTraversalCount());
+            assertEquals(0, metrics.getRequestFocusAttempts());
+            assertEquals(0, metrics.getSkippedNodes());
+            assertEquals(0, sum(metrics.getLatencyHistogram()));
+            assertEquals(0, metrics.getLatencyPercentileMicros(100));
+        });
+    }
+
+    @Test
+    public void disabledMetricsDoNotCount() throws Exception {
+        onFxThread(() -> {
+            final Region[] nodes = createNodes(2);
+            stage = show(nodes);
+            new FocusTraversalGroup("metrics", nodes);
+            metrics.reset();
+            nodes[0].requestFocus();
+
+            tab();
+            assertTrue(nodes[1].isFocused());
+            assertEquals(0, metrics.getTraversalCount());
+            assertEquals(0, sum(metrics.getLatencyHistogram()));
+        });
+    }
+
+    @Test
+    public void histogramBuckets() {
+        metrics.setEnabled(true);
+        //Bucket 0: unter 1 µs
+        metrics.recordTraversal(System.nanoTime() + 1_000_000L, 1, 0);
+        //Bucket 11: 1024 µs bis 2048 µs
+        metrics.recordTraversal(System.nanoTime() - 1_500_000L, 3, 0);
+        //Der letzte Bucket zählt auch alle langsameren Traversierungen
+        metrics.recordTraversal(System.nanoTime() - Long.MAX_VALUE / 2, 1, 0);
+
+        final long[] histogram = metrics.getLatencyHistogram();
+        assertEquals(FocusTraversalMetrics.LATENCY_BUCKETS, histogram.length);
+        assertEquals(1, histogram[0]);
+        assertEquals(1, histogram[11]);
+        assertEquals(1, histogram[FocusTraversalMetrics.LATENCY_BUCKETS - 1]);
+        assertEquals(3, sum(histogram));
+        assertEquals(1L, metrics.getLatencyPercentileMicros(30));
+        assertEquals(1L << 11, metrics.getLatencyPercentileMicros(60));
+        assertEquals(1L << (FocusTraversalMetrics.LATENCY_BUCKETS - 1), metrics.getLatencyPercentileMicros(100));
+        assertEquals(3, metrics.getMaxRequestFocusAttempts());
+    }
+
+    private void tab() {
+        press(stage.getScene(), KeyCode.TAB, false, false);
+    }
+
+    private static long sum(final long[] histogram) {
+        long sum = 0;
+        for (final long count : histogram) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private static Region[] createNodes(final int count) {
+        final Region[] nodes = new Region[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new Region();
+            nodes[i].setFocusTraversable(true);
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,162 @@
+package de.pheru.fx.util.focus;
+
+import javafx.event.EventHandler;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.stage.Stage;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static de.pheru.fx.util.focus.FxTestSupport.*;
+import static org.junit.Assert.*;
+
+public class FocusTraversalTest {
+
+    private Stage stage;
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        startFx();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        onFxThread(() -> {
+            FocusTraversal.setDispatchMode(FocusTraversal.DispatchMode.NODE);
+            if (stage != null) {
+                stage.close();
+            }
+        });
+    }
+
+    @Test
+    public void sceneDispatchMode() throws Exception {
+        onFxThread(() -> {
+            FocusTraversal.setDispatchMode(FocusTraversal.DispatchMode.SCENE);
+            final Region[] nodes = createNodes(3);
+            stage = show(nodes);
+            FocusTraversal.installSceneDispatcher(stage.getScene());
+            final FocusTraversalGroup group = new FocusTraversalGroup("scene", nodes);
+            try {
+                nodes[2].requestFocus();
+                press(stage.getScene(), KeyCode.TAB, false, false);
+                assertTrue(nodes[0].isFocused());
+                press(stage.getScene(), KeyCode.TAB, true, false);
+                assertTrue(nodes[2].isFocused());
+            } finally {
+                FocusTraversalGroup.removeFocusTraversalGroup(group.getName());
+            }
+        });
+    }
+
+    @Test
+    public void unhandledKeyReachesOuterTraversal() throws Exception {
+        for (final FocusTraversal.DispatchMode mode : FocusTraversal.DispatchMode.values()) {
+            onFxThread(() -> {
+                FocusTraversal.setDispatchMode(mode);
+                final Region inner = createNodes(1)[0];
+                final Pane outer = new Pane(inner);
+                showWithDispatcher(outer);
+                final AtomicInteger outerCount = new AtomicInteger();
+                final List<Registration> registrations = new ArrayList<>();
+                registrations.add(register(inner, (node, event) -> false));
+                registrations.add(register(outer, (node, event) -> outerCount.incrementAndGet() > 0));
+                final AtomicInteger unconsumed = countUnconsumed();
+                inner.requestFocus();
+
+                press(stage.getScene(), KeyCode.F2, false, false);
+                assertEquals(mode.name(), 1, outerCount.get());
+                assertEquals(mode.name(), 0, unconsumed.get());
+                unregisterAll(registrations);
+                stage.close();
+            });
+        }
+    }
+
+    @Test
+    public void allTraversalsOfANodeGetTheEvent() throws Exception {
+        for (final FocusTraversal.DispatchMode mode : FocusTraversal.DispatchMode.values()) {
+            onFxThread(() -> {
+                FocusTraversal.setDispatchMode(mode);
+                final Region node = createNodes(1)[0];
+                showWithDispatcher(node);
+                final int handlers = FocusTraversal.getMetrics().getHandlerCount();
+                final AtomicInteger first = new AtomicInteger();
+                final AtomicInteger second = new AtomicInteger();
+                final List<Registration> registrations = new ArrayList<>();
+                registrations.add(register(node, (source, event) -> first.incrementAndGet() > 0));
+                registrations.add(register(node, (source, event) -> second.incrementAndGet() > 0));
+                assertEquals(mode.name(), handlers + 2, FocusTraversal.getMetrics().getHandlerCount());
+                final AtomicInteger unconsumed = countUnconsumed();
+                node.requestFocus();
+
+                press(stage.getScene(), KeyCode.F2, false, false);
+                assertEquals(mode.name(), 1, first.get());
+                assertEquals(mode.name(), 1, second.get());
+                assertEquals(mode.name(), 0, unconsumed.get());
+
+                unregisterAll(registrations.subList(0, 1));
+                assertEquals(mode.name(), handlers + 1, FocusTraversal.getMetrics().getHandlerCount());
+                press(stage.getScene(), KeyCode.F2, false, false);
+                assertEquals(mode.name(), 1, first.get());
+                assertEquals(mode.name(), 2, second.get());
+                unregisterAll(registrations.subList(1, 2));
+                assertEquals(mode.name(), handlers, FocusTraversal.getMetrics().getHandlerCount());
+                stage.close();
+            });
+        }
+    }
+
+    private void showWithDispatcher(final Region root) {
+        stage = show(root);
+        if (FocusTraversal.getDispatchMode() == FocusTraversal.DispatchMode.SCENE) {
+            FocusTraversal.installSceneDispatcher(stage.getScene());
+        }
+    }
+
+    private AtomicInteger countUnconsumed() {
+        final AtomicInteger unconsumed = new AtomicInteger();
+        stage.getScene().addEventHandler(KeyEvent.KEY_PRESSED, event -> unconsumed.incrementAndGet());
+        return unconsumed;
+    }
+
+    private static Registration register(final Region node, final KeyTraversal traversal) {
+        return new Registration(node, traversal, FocusTraversal.register(node, traversal));
+    }
+
+    private static void unregisterAll(final List<Registration> registrations) {
+        for (final Registration registration : registrations) {
+            FocusTraversal.unregister(registration.node, registration.traversal, registration.handler);
+        }
+    }
+
+    private static Region[] createNodes(final int count) {
+        final Region[] nodes = new Region[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = new Region();
+            nodes[i].setFocusTraversable(true);
+            nodes[i].resize(10, 10);
+        }
+        return nodes;
+    }
+
+    private static final class Registration {
+
+        private final Region node;
+        private final KeyTraversal traversal;
+        private final EventHandler<KeyEvent> handler;
+
+        private Registration(final Region node, final KeyTraversal traversal, final EventHandler<KeyEvent> handler) {
+            this.node = node;
+            this.traversal = traversal;
+            this.handler = handler;
+        }
+    }
+}
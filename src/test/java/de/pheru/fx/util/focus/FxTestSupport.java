@@ -0,0 +1,89 @@
+package de.pheru.fx.util.focus;
+
+import com.sun.javafx.application.PlatformImpl;
+import javafx.application.Platform;
+import javafx.event.Event;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.layout.Pane;
+import javafx.stage.Stage;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Headless JavaFX (Monocle) for the focus tests.
+ */
+final class FxTestSupport {
+
+    private static boolean started = false;
+
+    private FxTestSupport() {
+        //Utility-Class
+    }
+
+    static synchronized void startFx() throws InterruptedException {
+        if (started) {
+            return;
+        }
+        setDefault("glass.platform", "Monocle");
+        setDefault("monocle.platform", "Headless");
+        setDefault("prism.order", "sw");
+        final CountDownLatch latch = new CountDownLatch(1);
+        PlatformImpl.startup(latch::countDown);
+        latch.await();
+        Platform.setImplicitExit(false);
+        started = true;
+    }
+
+    private static void setDefault(final String key, final String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    static void onFxThread(final Runnable runnable) throws Exception {
+        onFxThread(() -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    static <T> T onFxThread(final Callable<T> callable) throws Exception {
+        final FutureTask<T> task = new FutureTask<>(callable);
+        Platform.runLater(task);
+        try {
+            return task.get();
+        } catch (final ExecutionException e) {
+            //Fehlgeschlagene Assertions im FX-Thread unverändert weiterreichen
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    static Stage show(final Node... nodes) {
+        final Stage stage = new Stage();
+        stage.setScene(new Scene(new Pane(nodes), 400, 400));
+        stage.show();
+        stage.requestFocus();
+        return stage;
+    }
+
+    /**
+     * Fires a KEY_PRESSED event at the focus owner of the scene.
+     */
+    static void press(final Scene scene, final KeyCode keyCode, final boolean shift, final boolean control) {
+        final Node focusOwner = scene.getFocusOwner();
+        Event.fireEvent(focusOwner != null ? focusOwner : scene.getRoot(),
+                new KeyEvent(KeyEvent.KEY_PRESSED, "", "", keyCode, shift, control, false, false));
+    }
+}
@@ -0,0 +1,123 @@
+package de.pheru.fx.util.properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BinaryPropertiesStorageTest {
+
+    private final File file = new File("src/test/resources/properties/binarytest.bin");
+    private final File textFile = new File("src/test/resources/properties/binarytest.bar");
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(textFile.toPath());
+    }
+
+    @Test
+    public void saveAndLoadTyped() throws Exception {
+        final ObservableProperties observableProperties = new ObservableProperties(new BinaryPropertiesStorage());
+        observableProperties.stringProperty("stringKey", "Grüße");
+        observableProperties.booleanProperty("booleanKey", true);
+        observableProperties.integerProperty("integerKey", 1234);
+        observableProperties.longProperty("longKey", 123456789012L);
+        observableProperties.floatProperty("floatKey", 12.34F);
+        observableProperties.doubleProperty("doubleKey", 1234.56);
+        observableProperties.save("comment", file.getAbsolutePath());
+
+        final Map<String, Object> values = new HashMap<>();
+        new BinaryPropertiesStorage().read(file.toPath(), values);
+        assertEquals("Grüße", values.get("stringKey"));
+        assertEquals(Boolean.TRUE, values.get("booleanKey"));
+        assertEquals(1234, values.get("integerKey"));
+        assertEquals(123456789012L, values.get("longKey"));
+        assertEquals(12.34F, values.get("floatKey"));
+        assertEquals(1234.56, values.get("doubleKey"));
+
+        final ObservableProperties reloaded = new ObservableProperties(new BinaryPropertiesStorage());
+        reloaded.load(file.getAbsolutePath());
+        assertEquals(1234, reloaded.integerProperty("integerKey", 0).get());
+        assertEquals("123456789012", reloaded.stringProperty("longKey", "").get());
+        assertFalse(reloaded.hasUnsavedChanges());
+    }
+
+    @Test
+    public void importAndExportText() throws Exception {
+        BinaryPropertiesStorage.importText(new File("src/test/resources/properties/testproperties.foo").toPath(), file.toPath());
+        final ObservableProperties observableProperties = new ObservableProperties(new BinaryPropertiesStorage());
+        observableProperties.load(file.getAbsolutePath());
+        assertEquals("stringValue", observableProperties.stringProperty("stringKey", "").get());
+        assertEquals(1234.56, observableProperties.doubleProperty("doubleKey", 0).get(), 0.0);
+
+        BinaryPropertiesStorage.exportText(file.toPath(), textFile.toPath(), "comment");
+        final ObservableProperties exported = new ObservableProperties();
+        exported.load(textFile.getAbsolutePath());
+        assertEquals(1234, exported.integerProperty("integerKey", 0).get());
+    }
+
+    @Test
+    public void loadTextFails() throws Exception {
+        try {
+            new ObservableProperties(new BinaryPropertiesStorage())
+                    .load(new File("src/test/resources/properties/testproperties.foo").getAbsolutePath());
+            fail("Exception expected!");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().startsWith("Not a binary properties file"));
+        }
+    }
+
+    @Test
+    public void invalidLengthFails() throws Exception {
+        assertInvalidLength(-1);
+        assertInvalidLength(Integer.MAX_VALUE);
+        //Länge des Schlüssels passt, die des Werts reicht über das Dateiende hinaus
+        final ByteBuffer buffer = ByteBuffer.allocate(25);
+        buffer.putInt(BinaryPropertiesStorage.MAGIC).putInt(BinaryPropertiesStorage.VERSION).putInt(1);
+        buffer.putInt(3).put("key".getBytes(StandardCharsets.UTF_8)).put((byte) 0).putInt(2);
+        Files.write(file.toPath(), buffer.array());
+        try {
+            new BinaryPropertiesStorage().read(file.toPath(), new HashMap<>());
+            fail("Exception expected!");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().startsWith("Invalid length 2"));
+        }
+    }
+
+    @Test
+    public void loadedFileCanBeReplaced() throws Exception {
+        final ObservableProperties observableProperties = new ObservableProperties(new BinaryPropertiesStorage());
+        observableProperties.stringProperty("stringKey", "first");
+        observableProperties.save("comment", file.getAbsolutePath());
+        final ObservableProperties reloaded = new ObservableProperties(new BinaryPropertiesStorage());
+        reloaded.load(file.getAbsolutePath());
+
+        Files.delete(file.toPath());
+        observableProperties.stringProperty("stringKey", "first").set("second");
+        observableProperties.save("comment", file.getAbsolutePath());
+        assertEquals("first", reloaded.stringProperty("stringKey", "").get());
+        reloaded.load(file.getAbsolutePath());
+        assertEquals("second", reloaded.stringProperty("stringKey", "").get());
+    }
+
+    private void assertInvalidLength(final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putInt(BinaryPropertiesStorage.MAGIC).putInt(BinaryPropertiesStorage.VERSION).putInt(1).putInt(length);
+        Files.write(file.toPath(), buffer.array());
+        try {
+            new BinaryPropertiesStorage().read(file.toPath(), new HashMap<>());
+            fail("Exception expected!");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().startsWith("Invalid length " + length));
+        }
+    }
+}
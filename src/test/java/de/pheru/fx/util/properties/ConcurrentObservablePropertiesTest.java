@@ -0,0 +1,106 @@
+package de.pheru.fx.util.properties;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentObservablePropertiesTest {
+
+    private final List<Runnable> fxQueue = new CopyOnWriteArrayList<>();
+    private ConcurrentObservableProperties observableProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        observableProperties = new ConcurrentObservableProperties(new TextPropertiesStorage(), fxQueue::add);
+        observableProperties.load(new File("src/test/resources/properties/testproperties.foo").getAbsolutePath());
+    }
+
+    @Test
+    public void setAppliesBatchOnFxThread() throws Exception {
+        final IntegerProperty integerProperty = observableProperties.integerProperty("integerKey", 0);
+        final StringProperty stringProperty = observableProperties.stringProperty("stringKey", "");
+        final ExecutorService workers = Executors.newFixedThreadPool(4);
+        for (int i = 1; i <= 100; i++) {
+            final int value = i;
+            workers.submit(() -> observableProperties.set("integerKey", value)).get();
+        }
+        workers.submit(() -> observableProperties.set("stringKey", "fromWorker")).get();
+        workers.shutdown();
+
+        assertEquals(100, observableProperties.getInteger("integerKey", 0));
+        assertEquals("fromWorker", observableProperties.getString("stringKey", ""));
+        assertEquals(1234, integerProperty.get());
+        assertEquals(1, fxQueue.size());
+
+        fxQueue.remove(0).run();
+        assertEquals(100, integerProperty.get());
+        assertEquals("fromWorker", stringProperty.get());
+        assertTrue(observableProperties.hasUnsavedChanges());
+    }
+
+    @Test
+    public void setRejectsValueOfOtherType() throws Exception {
+        final IntegerProperty integerProperty = observableProperties.integerProperty("integerKey", 0);
+        try {
+            observableProperties.set("integerKey", 1.5);
+            fail("Exception expected!");
+        } catch (final IllegalArgumentException e) {
+            assertTrue(e.getMessage().endsWith("does not match the Integer property of \"integerKey\"!"));
+        }
+        assertEquals(1234, observableProperties.getInteger("integerKey", 0));
+        assertEquals(1234, integerProperty.get());
+        assertTrue(fxQueue.isEmpty());
+        assertFalse(observableProperties.hasUnsavedChanges());
+    }
+
+    @Test
+    public void setRejectsNull() throws Exception {
+        observableProperties.stringProperty("stringKey", "");
+        try {
+            observableProperties.set("stringKey", null);
+            fail("Exception expected!");
+        } catch (final NullPointerException e) {
+            assertEquals("Value of \"stringKey\" must not be null!", e.getMessage());
+        }
+        assertEquals("stringValue", observableProperties.getString("stringKey", ""));
+        assertTrue(fxQueue.isEmpty());
+    }
+
+    @Test
+    public void propertyChangesAreReadableImmediately() throws Exception {
+        observableProperties.doubleProperty("doubleKey", 0).set(1.5);
+        assertEquals(1.5, observableProperties.getDouble("doubleKey", 0), 0.0);
+        assertEquals(123456L, observableProperties.getLong("longKey", 0));
+        assertTrue(observableProperties.getBoolean("booleanKey", false));
+        assertEquals(7.5F, observableProperties.getFloat("missingKey", 7.5F), 0.0F);
+    }
+
+    @Test
+    public void propertyCreationIsAtomic() throws Exception {
+        final int threads = 8;
+        final ExecutorService workers = Executors.newFixedThreadPool(threads);
+        final CyclicBarrier barrier = new CyclicBarrier(threads);
+        final List<Future<IntegerProperty>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(workers.submit(() -> {
+                barrier.await();
+                return observableProperties.integerProperty("integerKey", 0);
+            }));
+        }
+        final Set<IntegerProperty> properties = ConcurrentHashMap.newKeySet();
+        for (final Future<IntegerProperty> future : futures) {
+            properties.add(future.get());
+        }
+        workers.shutdown();
+        assertEquals(1, properties.size());
+    }
+}
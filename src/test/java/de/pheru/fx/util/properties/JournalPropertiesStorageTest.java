@@ -0,0 +1,101 @@
+package de.pheru.fx.util.properties;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class JournalPropertiesStorageTest {
+
+    private final File file = new File("src/test/resources/properties/journaltest.bar");
+    private final File journalFile = new File(file.getPath() + JournalPropertiesStorage.JOURNAL_SUFFIX);
+
+    @Before
+    public void setUp() throws Exception {
+        Files.copy(new File("src/test/resources/properties/testproperties.foo").toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+        Files.deleteIfExists(journalFile.toPath());
+        Files.deleteIfExists(new File(file.getPath() + JournalPropertiesStorage.COMPACTING_SUFFIX).toPath());
+    }
+
+    @Test
+    public void saveAppendsToJournal() throws Exception {
+        final JournalPropertiesStorage storage = new JournalPropertiesStorage();
+        final ObservableProperties observableProperties = new ObservableProperties(storage);
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.stringProperty("stringKey", "").set("first");
+        observableProperties.save("comment");
+        observableProperties.stringProperty("stringKey", "").set("second");
+        observableProperties.integerProperty("newKey", 42);
+        observableProperties.save("comment");
+        storage.close();
+
+        assertEquals("stringValue", loadProperties(file).getProperty("stringKey"));
+        assertTrue(journalFile.length() > 0);
+
+        final ObservableProperties reloaded = new ObservableProperties(new JournalPropertiesStorage());
+        reloaded.load(file.getAbsolutePath());
+        assertEquals("second", reloaded.stringProperty("stringKey", "").get());
+        assertEquals(42, reloaded.integerProperty("newKey", 0).get());
+        assertEquals(1234, reloaded.integerProperty("integerKey", 0).get());
+    }
+
+    @Test
+    public void compaction() throws Exception {
+        final JournalPropertiesStorage storage = new JournalPropertiesStorage(1, Runnable::run);
+        final ObservableProperties observableProperties = new ObservableProperties(storage);
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.stringProperty("stringKey", "").set("compacted");
+        observableProperties.save("comment");
+        storage.close();
+
+        assertEquals("compacted", loadProperties(file).getProperty("stringKey"));
+        assertFalse(journalFile.exists());
+    }
+
+    @Test
+    public void incompleteRecordIsIgnored() throws Exception {
+        final JournalPropertiesStorage storage = new JournalPropertiesStorage();
+        final ObservableProperties observableProperties = new ObservableProperties(storage);
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.stringProperty("stringKey", "").set("beforeCrash");
+        observableProperties.save("comment");
+        storage.close();
+        try (final FileOutputStream outputStream = new FileOutputStream(journalFile, true)) {
+            outputStream.write(new byte[]{1, 0, 0, 0, 9, 'a'});
+        }
+
+        final JournalPropertiesStorage reloadedStorage = new JournalPropertiesStorage();
+        final ObservableProperties reloaded = new ObservableProperties(reloadedStorage);
+        reloaded.load(file.getAbsolutePath());
+        assertEquals("beforeCrash", reloaded.stringProperty("stringKey", "").get());
+        reloaded.stringProperty("stringKey", "").set("afterCrash");
+        reloaded.save("comment");
+        reloadedStorage.close();
+
+        final ObservableProperties reloadedAgain = new ObservableProperties(new JournalPropertiesStorage());
+        reloadedAgain.load(file.getAbsolutePath());
+        assertEquals("afterCrash", reloadedAgain.stringProperty("stringKey", "").get());
+    }
+
+    private Properties loadProperties(final File file) throws Exception {
+        final Properties properties = new Properties();
+        try (final FileInputStream inputStream = new FileInputStream(file)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,130 @@
+package de.pheru.fx.util.properties;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class LayeredObservablePropertiesTest {
+
+    private final File file = new File("src/test/resources/properties/layeredtest.bar");
+    private final List<Runnable> fxQueue = new ArrayList<>();
+    private PropertiesLayer defaults;
+    private PropertiesLayer shared;
+
+    @Before
+    public void setUp() throws Exception {
+        final Map<String, Object> defaultValues = new HashMap<>();
+        defaultValues.put("a", "default");
+        defaultValues.put("b", "default");
+        defaultValues.put("c", "default");
+        defaultValues.put("number", 1);
+        defaults = new PropertiesLayer(defaultValues);
+        shared = new PropertiesLayer(Collections.singletonMap("b", "shared"));
+        Files.write(file.toPath(), Collections.singletonList("c=user"));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void resolveThroughLayers() throws Exception {
+        final LayeredObservableProperties observableProperties = createUserProperties();
+        assertEquals("default", observableProperties.stringProperty("a", null).get());
+        assertEquals("shared", observableProperties.stringProperty("b", null).get());
+        assertEquals("user", observableProperties.stringProperty("c", null).get());
+        assertEquals(1, observableProperties.integerProperty("number", 0).get());
+        assertTrue(observableProperties.contains("a"));
+        assertFalse(observableProperties.contains("missing"));
+        assertTrue(observableProperties.isOverridden("c"));
+        assertFalse(observableProperties.isOverridden("b"));
+    }
+
+    @Test
+    public void keysWithPrefixIncludesLayers() throws Exception {
+        final LayeredObservableProperties observableProperties = createUserProperties();
+        observableProperties.stringProperty("d", "own");
+        assertEquals(new TreeSet<>(Arrays.asList("a", "b", "c", "d", "number")), observableProperties.keysWithPrefix(""));
+        assertEquals(Collections.singleton("number"), observableProperties.keysWithPrefix("n"));
+    }
+
+    @Test
+    public void saveWritesOnlyOwnValues() throws Exception {
+        final LayeredObservableProperties observableProperties = createUserProperties();
+        observableProperties.stringProperty("a", null);
+        observableProperties.stringProperty("b", null).set("user");
+        observableProperties.save("comment");
+
+        final Properties saved = new Properties();
+        try (final FileInputStream inputStream = new FileInputStream(file)) {
+            saved.load(inputStream);
+        }
+        assertEquals(2, saved.size());
+        assertEquals("user", saved.getProperty("b"));
+        assertEquals("user", saved.getProperty("c"));
+    }
+
+    @Test
+    public void layerChangeUpdatesAffectedKeys() throws Exception {
+        final LayeredObservableProperties first = createUserProperties();
+        final LayeredObservableProperties second = createUserProperties();
+        final StringProperty firstB = first.stringProperty("b", null);
+        final StringProperty secondB = second.stringProperty("b", null);
+        final StringProperty firstC = first.stringProperty("c", null);
+        final IntegerProperty number = first.integerProperty("number", 0);
+
+        shared.set("b", "changed");
+        shared.set("c", "changed");
+        defaults.set("number", 2);
+        runFxQueue();
+        assertEquals("changed", firstB.get());
+        assertEquals("changed", secondB.get());
+        assertEquals("user", firstC.get());
+        assertEquals(2, number.get());
+        assertFalse(first.hasUnsavedChanges());
+
+        shared.setValues(Collections.emptyMap());
+        runFxQueue();
+        assertEquals("default", firstB.get());
+    }
+
+    @Test
+    public void layerChangeOnOtherThreadUpdatesPropertiesOnFxThread() throws Exception {
+        final LayeredObservableProperties observableProperties = createUserProperties();
+        final StringProperty b = observableProperties.stringProperty("b", null);
+
+        final Thread thread = new Thread(() -> shared.set("b", "changed"));
+        thread.start();
+        thread.join();
+        //Der neue Wert gilt sofort, die Property ändert sich erst im FX-Thread
+        assertEquals("changed", observableProperties.getStoredValue("b"));
+        assertEquals("shared", b.get());
+        runFxQueue();
+        assertEquals("changed", b.get());
+        assertFalse(observableProperties.hasUnsavedChanges());
+    }
+
+    private void runFxQueue() {
+        for (final Runnable runnable : fxQueue) {
+            runnable.run();
+        }
+        fxQueue.clear();
+    }
+
+    private LayeredObservableProperties createUserProperties() throws Exception {
+        final LayeredObservableProperties observableProperties =
+                new LayeredObservableProperties(Arrays.asList(defaults, shared), new TextPropertiesStorage(), fxQueue::add);
+        observableProperties.load(file.getAbsolutePath());
+        return observableProperties;
+    }
+}
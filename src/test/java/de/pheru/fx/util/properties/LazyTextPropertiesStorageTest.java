@@ -0,0 +1,121 @@
+package de.pheru.fx.util.properties;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class LazyTextPropertiesStorageTest {
+
+    private static final String CONTENT = "# comment \\\n"
+            + "! other comment\n"
+            + "  plain = value  \n"
+            + "colon:value\n"
+            + "space value with spaces\n"
+            + "escaped\\ key\\=x = a\\tb\\u00e4\\\\\n"
+            + "continued = first, \\\r\n"
+            + "      second, \\\n"
+            + "\tthird\n"
+            + "\n"
+            + "empty\n"
+            + "latin=äöü\r"
+            + "plain=overwritten\n"
+            + "last=end\\";
+
+    private final File file = new File("src/test/resources/properties/lazytest.bar");
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void readLikeProperties() throws Exception {
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+        final Properties expected = loadProperties(file);
+
+        final Map<String, Object> values = new HashMap<>();
+        new LazyTextPropertiesStorage().read(file.toPath(), values);
+        assertEquals(expected.size(), values.size());
+        for (final String key : expected.stringPropertyNames()) {
+            assertEquals(key, expected.getProperty(key), values.get(key).toString());
+        }
+    }
+
+    @Test
+    public void saveCopiesUnchangedLines() throws Exception {
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+        final ObservableProperties observableProperties = new ObservableProperties(new LazyTextPropertiesStorage());
+        observableProperties.load(file.getAbsolutePath());
+        assertTrue(observableProperties.contains("continued"));
+        assertEquals("value", observableProperties.stringProperty("colon", "").get());
+        observableProperties.stringProperty("plain", "").set("changed");
+        observableProperties.save("comment");
+
+        final String saved = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+        assertTrue(saved.contains("continued = first, \\\r\n      second, \\\n\tthird"));
+        assertTrue(saved.contains("colon:value"));
+        assertTrue(saved.contains("plain=changed"));
+
+        final Properties expected = loadProperties(file);
+        final ObservableProperties reloaded = new ObservableProperties(new LazyTextPropertiesStorage());
+        reloaded.load(file.getAbsolutePath());
+        for (final String key : expected.stringPropertyNames()) {
+            assertEquals(key, expected.getProperty(key), reloaded.stringProperty(key, null).get());
+        }
+        assertEquals("first, second, third", expected.getProperty("continued"));
+    }
+
+    @Test
+    public void valuesSurviveChangesOfTheFile() throws Exception {
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+        final ObservableProperties observableProperties = new ObservableProperties(new LazyTextPropertiesStorage());
+        observableProperties.load(file.getAbsolutePath());
+        //Gleiche Länge, anderer Inhalt
+        Files.write(file.toPath(), CONTENT.replace('a', 'x').getBytes(StandardCharsets.ISO_8859_1));
+
+        assertEquals("value", observableProperties.stringProperty("colon", "").get());
+        observableProperties.stringProperty("plain", "").set("changed");
+        observableProperties.save("comment");
+        final String saved = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+        assertTrue(saved.contains("colon:value"));
+        assertTrue(saved.contains("latin=äöü"));
+        assertFalse(saved.contains("vxlue"));
+    }
+
+    @Test
+    public void decodedValueIsKept() throws Exception {
+        Files.write(file.toPath(), CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+        final Map<String, Object> values = new HashMap<>();
+        new LazyTextPropertiesStorage().read(file.toPath(), values);
+
+        final Object lazyValue = values.get("escaped key=x");
+        final String decoded = lazyValue.toString();
+        assertEquals("a\tb\u00e4\\", decoded);
+        assertSame(decoded, lazyValue.toString());
+        assertEquals("first, second, third", values.get("continued").toString());
+        assertEquals("end", values.get("last").toString());
+
+        //Auch nach dem Dekodieren wird die Zeile unverändert geschrieben
+        new LazyTextPropertiesStorage().write(file.toPath(), values, values.keySet(), null);
+        final String saved = new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1);
+        assertTrue(saved.contains("escaped\\ key\\=x = a\\tb\\u00e4\\\\"));
+        assertTrue(saved.contains("continued = first, \\\r\n      second, \\\n\tthird"));
+    }
+
+    private Properties loadProperties(final File file) throws Exception {
+        final Properties properties = new Properties();
+        try (final FileInputStream inputStream = new FileInputStream(file)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,76 @@
+package de.pheru.fx.util.properties;
+
+import de.pheru.fx.util.properties.ObservablePropertiesLoader.Result;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ObservablePropertiesLoaderTest {
+
+    private final BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+    private final String filePath = new File("src/test/resources/properties/testproperties.foo").getAbsolutePath();
+    private ObservablePropertiesLoader loader;
+
+    @Before
+    public void setUp() throws Exception {
+        loader = new ObservablePropertiesLoader(null, fxQueue::add);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        loader.close();
+    }
+
+    @Test
+    public void loadAllAppliesOnFxThread() throws Exception {
+        final Map<ObservableProperties, String> filePaths = new LinkedHashMap<>();
+        for (int i = 0; i < 4; i++) {
+            filePaths.put(new ObservableProperties(), filePath);
+        }
+        filePaths.put(new ConcurrentObservableProperties(), filePath);
+        final CompletableFuture<List<Result>> future = loader.loadAll(filePaths);
+        for (int i = 0; i < filePaths.size(); i++) {
+            final Runnable apply = fxQueue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(apply);
+            assertFalse(future.isDone());
+            apply.run();
+        }
+
+        final List<Result> results = future.get(10, TimeUnit.SECONDS);
+        assertEquals(filePaths.size(), results.size());
+        for (final Result result : results) {
+            assertEquals(filePath, result.getFilePath());
+            assertEquals(filePath, result.getObservableProperties().getFilePath());
+            assertEquals(1234, result.getObservableProperties().integerProperty("integerKey", 0).get());
+            assertTrue(result.getReadNanos() > 0);
+            assertTrue(result.getApplyNanos() > 0);
+        }
+    }
+
+    @Test
+    public void failedReadCompletesExceptionally() throws Exception {
+        final ObservableProperties observableProperties = new ObservableProperties();
+        final CompletableFuture<Result> future = loader.load(observableProperties, "src/test/resources/properties/missing.foo");
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail("Exception expected!");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof UncheckedIOException);
+            assertNull(observableProperties.getFilePath());
+            assertTrue(fxQueue.isEmpty());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package de.pheru.fx.util.properties;
 
 import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.StringProperty;
 import javafx.util.StringConverter;
 import org.junit.Before;
@@ -8,7 +10,20 @@ import org.junit.Test;
 
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
 import java.util.Properties;
+import java.util.SortedMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.Assert.*;
 
@@ -105,6 +120,29 @@ public class ObservablePropertiesTest {
         assertFalse(observableProperties.contains(new ObservablePropertyKey<>("notExistingKey", DEFAULT_BOOLEAN)));
     }
 
+    @Test
+    public void containsRegisteredKeys() throws Exception {
+        final File file = new File("src/test/resources/properties/containstest.bar");
+        try {
+            Files.copy(new File(observableProperties.getFilePath()).toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            final ObservableProperties autoSaved = new ObservableProperties();
+            autoSaved.load(file.getAbsolutePath());
+            autoSaved.enableAutoSave(null, 1, TimeUnit.HOURS);
+            for (final ObservableProperties properties : Arrays.asList(new ObservableProperties(),
+                    new ConcurrentObservableProperties(new TextPropertiesStorage(), Runnable::run), observableProperties,
+                    autoSaved)) {
+                assertFalse(properties.contains("registeredKey"));
+                properties.integerProperty("registeredKey", DEFAULT_INTEGER);
+                assertTrue(properties.contains("registeredKey"));
+                properties.removeWithPrefix("registeredKey");
+                assertFalse(properties.contains("registeredKey"));
+            }
+            autoSaved.disableAutoSave();
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
     @Test
     public void loadedTwice() throws Exception {
         assertTrue(observableProperties.contains("booleanKey"));
@@ -179,6 +217,31 @@ public class ObservablePropertiesTest {
         assertEquals(new TestObject(1, "Eins"), observableProperties.objectProperty("objectKey", DEFAULT_TESTOBJECT).get());
     }
 
+    @Test
+    public void objectPropertySubclass() throws Exception {
+        final File file = new File("src/test/resources/properties/subclasstest.bar");
+        observableProperties.registerConverter(TestObject.class, new StringConverter<TestObject>() {
+            @Override
+            public String toString(TestObject object) {
+                return object.integer + "-" + object.string;
+            }
+
+            @Override
+            public TestObject fromString(String string) {
+                final String[] split = string.split("-");
+                return new SpecialTestObject(Integer.valueOf(split[0]), split[1]);
+            }
+        });
+        final ObjectProperty<TestObject> objectProperty = observableProperties.objectProperty("objectKey", new SpecialTestObject(2, "Zwei"));
+        assertEquals(new TestObject(1, "Eins"), objectProperty.get());
+        objectProperty.set(new SpecialTestObject(3, "Drei"));
+        observableProperties.save("comment", file.getAbsolutePath());
+        assertEquals("3-Drei", loadProperties(file).getProperty("objectKey"));
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
     @Test
     public void objectPropertyNoConverter() throws Exception {
         try {
@@ -189,6 +252,383 @@ public class ObservablePropertiesTest {
         }
     }
 
+    @Test
+    public void objectPropertyNullDefault() throws Exception {
+        final File file = new File("src/test/resources/properties/nulldefaulttest.bar");
+        final String testPropertiesPath = observableProperties.getFilePath();
+        registerTestObjectConverter(observableProperties);
+        try {
+            final ObjectProperty<TestObject> objectProperty = observableProperties.objectProperty("missing", null);
+            assertNull(objectProperty.get());
+            observableProperties.save("comment", file.getAbsolutePath());
+            assertFalse(loadProperties(file).containsKey("missing"));
+
+            objectProperty.set(new TestObject(3, "Drei"));
+            observableProperties.save("comment", file.getAbsolutePath());
+            assertEquals("3-Drei", loadProperties(file).getProperty("missing"));
+            objectProperty.set(null);
+            observableProperties.save("comment", file.getAbsolutePath());
+            assertFalse(loadProperties(file).containsKey("missing"));
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+
+        final ObservableProperties reloaded = new ObservableProperties();
+        reloaded.load(testPropertiesPath);
+        registerTestObjectConverter(reloaded);
+        assertEquals(new TestObject(1, "Eins"), reloaded.objectProperty("objectKey", TestObject.class, null).get());
+        try {
+            reloaded.objectProperty("stringKey", null);
+            fail("Exception expected!");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().startsWith("No type to convert the value of \"stringKey\""));
+        }
+    }
+
+    private static void registerTestObjectConverter(final ObservableProperties observableProperties) {
+        observableProperties.registerConverter(TestObject.class, new StringConverter<TestObject>() {
+            @Override
+            public String toString(TestObject object) {
+                return object.integer + "-" + object.string;
+            }
+
+            @Override
+            public TestObject fromString(String string) {
+                final String[] split = string.split("-");
+                return new TestObject(Integer.valueOf(split[0]), split[1]);
+            }
+        });
+    }
+
+    @Test
+    public void saveUnchangedSkipsWrite() throws Exception {
+        final File file = copyTestProperties("savetestunchanged.bar");
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.integerProperty("integerKey", DEFAULT_INTEGER);
+        assertTrue(file.setLastModified(1000L));
+        assertFalse(observableProperties.hasUnsavedChanges());
+
+        observableProperties.save("comment");
+        assertEquals(1000L, file.lastModified());
+
+        observableProperties.integerProperty("integerKey", DEFAULT_INTEGER).set(4321);
+        assertTrue(observableProperties.hasUnsavedChanges());
+        observableProperties.save("comment");
+        assertNotEquals(1000L, file.lastModified());
+        assertEquals("4321", loadProperties(file).getProperty("integerKey"));
+        assertFalse(observableProperties.hasUnsavedChanges());
+
+        final String[] tempFiles = file.getParentFile().list((dir, name) -> name.endsWith(".tmp"));
+        assertEquals(0, tempFiles.length);
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void successiveSavesKeepAllValues() throws Exception {
+        final File file = copyTestProperties("savetestsuccessive.bar");
+        observableProperties.load(file.getAbsolutePath());
+        final Properties original = loadProperties(file);
+
+        observableProperties.integerProperty("integerKey", DEFAULT_INTEGER).set(4321);
+        observableProperties.save("comment");
+        observableProperties.stringProperty("stringKey", DEFAULT_STRING).set("changed");
+        observableProperties.removeWithPrefix("doubleKey");
+        observableProperties.save("comment");
+
+        final Properties saved = loadProperties(file);
+        assertEquals("4321", saved.getProperty("integerKey"));
+        assertEquals("changed", saved.getProperty("stringKey"));
+        assertNull(saved.getProperty("doubleKey"));
+        assertEquals(original.getProperty("booleanKey"), saved.getProperty("booleanKey"));
+        assertEquals(original.getProperty("longKey"), saved.getProperty("longKey"));
+
+        //Nach erneutem Laden werden die Werte der Datei geschrieben, nicht die zuvor gespeicherten
+        final Properties external = loadProperties(file);
+        external.setProperty("longKey", "42");
+        try (final FileOutputStream outputStream = new FileOutputStream(file)) {
+            external.store(outputStream, null);
+        }
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.integerProperty("integerKey", DEFAULT_INTEGER).set(1);
+        observableProperties.save("comment");
+        assertEquals("42", loadProperties(file).getProperty("longKey"));
+        assertEquals("1", loadProperties(file).getProperty("integerKey"));
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void autoSaveCoalescesUntilFlush() throws Exception {
+        final File file = copyTestProperties("autosavetest.bar");
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.enableAutoSave("comment", 1, TimeUnit.HOURS);
+        final DoubleProperty doubleProperty = observableProperties.doubleProperty("doubleKey", DEFAULT_DOUBLE);
+        for (int i = 0; i <= 100; i++) {
+            doubleProperty.set(i);
+        }
+        assertEquals("1234.56", loadProperties(file).getProperty("doubleKey"));
+
+        observableProperties.flush();
+        assertEquals("100.0", loadProperties(file).getProperty("doubleKey"));
+        assertEquals("1234", loadProperties(file).getProperty("integerKey"));
+
+        observableProperties.disableAutoSave();
+        assertFalse(observableProperties.isAutoSaveEnabled());
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void autoSaveWritesInBackground() throws Exception {
+        final File file = copyTestProperties("autosavetest.bar");
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.enableAutoSave("comment", 10, TimeUnit.MILLISECONDS);
+        observableProperties.stringProperty("stringKey", DEFAULT_STRING).set("autoSaved");
+
+        final long timeout = System.currentTimeMillis() + 5000;
+        while (!"autoSaved".equals(loadProperties(file).getProperty("stringKey")) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertEquals("autoSaved", loadProperties(file).getProperty("stringKey"));
+
+        observableProperties.disableAutoSave();
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void autoSaveDoesNotBlockChanges() throws Exception {
+        final File file = copyTestProperties("autosaveblocktest.bar");
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        observableProperties = new ObservableProperties(new TextPropertiesStorage() {
+            @Override
+            public void write(final Path file, final Map<String, Object> values, final Collection<String> changedKeys,
+                              final String comments) throws IOException {
+                writing.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.write(file, values, changedKeys, comments);
+            }
+        });
+        observableProperties.load(file.getAbsolutePath());
+        final DoubleProperty doubleProperty = observableProperties.doubleProperty("doubleKey", DEFAULT_DOUBLE);
+        observableProperties.enableAutoSave("comment", 0, TimeUnit.MILLISECONDS);
+        doubleProperty.set(1);
+        assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+        //Der Hintergrund-Thread schreibt gerade, Änderungen dürfen trotzdem nicht warten
+        final ExecutorService changer = Executors.newSingleThreadExecutor();
+        try {
+            changer.submit(() -> doubleProperty.set(2)).get(5, TimeUnit.SECONDS);
+            assertTrue(changer.submit(observableProperties::hasUnsavedChanges).get(5, TimeUnit.SECONDS));
+        } finally {
+            changer.shutdown();
+            release.countDown();
+        }
+        observableProperties.disableAutoSave();
+        assertEquals("2.0", loadProperties(file).getProperty("doubleKey"));
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void failedWriteKeepsChangesUnsaved() throws Exception {
+        final File file = copyTestProperties("savefailtest.bar");
+        final AtomicBoolean fail = new AtomicBoolean(true);
+        observableProperties = new ObservableProperties(new TextPropertiesStorage() {
+            @Override
+            public void write(final Path file, final Map<String, Object> values, final Collection<String> changedKeys,
+                              final String comments) throws IOException {
+                if (fail.get()) {
+                    throw new IOException("Disk full");
+                }
+                super.write(file, values, changedKeys, comments);
+            }
+        });
+        observableProperties.load(file.getAbsolutePath());
+        observableProperties.integerProperty("integerKey", DEFAULT_INTEGER).set(4321);
+        try {
+            observableProperties.save("comment");
+            fail("Exception expected!");
+        } catch (final IOException e) {
+            assertTrue(observableProperties.hasUnsavedChanges());
+        }
+        fail.set(false);
+        observableProperties.save("comment");
+        assertFalse(observableProperties.hasUnsavedChanges());
+        assertEquals("4321", loadProperties(file).getProperty("integerKey"));
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void autoSaveNoFilePath() throws Exception {
+        try {
+            new ObservableProperties().enableAutoSave(null, 1, TimeUnit.SECONDS);
+            fail("Exception expected!");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage().endsWith(ObservableProperties.NO_FILEPATH_EXCEPTION_MSG));
+        }
+    }
+
+    @Test
+    public void hotReload() throws Exception {
+        final File file = copyTestProperties("hotreloadtest.bar");
+        observableProperties.load(file.getAbsolutePath());
+        final BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+        observableProperties.enableHotReload(fxQueue::add);
+        final StringProperty stringProperty = observableProperties.stringProperty("stringKey", DEFAULT_STRING);
+        final IntegerProperty integerProperty = observableProperties.integerProperty("integerKey", DEFAULT_INTEGER);
+        final DoubleProperty doubleProperty = observableProperties.doubleProperty("doubleKey", DEFAULT_DOUBLE);
+        doubleProperty.set(1.5);
+
+        final Properties external = loadProperties(file);
+        external.setProperty("stringKey", "changedExternally");
+        external.setProperty("doubleKey", "2.5");
+        external.setProperty("addedKey", "added");
+        external.remove("integerKey");
+        try (final FileOutputStream outputStream = new FileOutputStream(file)) {
+            external.store(outputStream, null);
+        }
+
+        final Runnable update = fxQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(update);
+        update.run();
+        assertEquals("changedExternally", stringProperty.get());
+        assertEquals(DEFAULT_INTEGER, integerProperty.get());
+        assertEquals(1.5, doubleProperty.get(), 0.0);
+        assertSame(stringProperty, observableProperties.stringProperty("stringKey", DEFAULT_STRING));
+        assertEquals("added", observableProperties.stringProperty("addedKey", DEFAULT_STRING).get());
+
+        observableProperties.disableHotReload();
+        assertFalse(observableProperties.isHotReloadEnabled());
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void hotReloadKeepsValuesChangedBeforeTheUpdate() throws Exception {
+        final File file = copyTestProperties("hotreloadlocaltest.bar");
+        observableProperties.load(file.getAbsolutePath());
+        final BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+        observableProperties.enableHotReload(fxQueue::add);
+        final StringProperty stringProperty = observableProperties.stringProperty("stringKey", DEFAULT_STRING);
+        final IntegerProperty integerProperty = observableProperties.integerProperty("integerKey", DEFAULT_INTEGER);
+
+        final Properties external = loadProperties(file);
+        external.setProperty("stringKey", "changedExternally");
+        external.setProperty("integerKey", "42");
+        try (final FileOutputStream outputStream = new FileOutputStream(file)) {
+            external.store(outputStream, null);
+        }
+        final Runnable update = fxQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(update);
+        //Änderung im FX-Thread zwischen dem Lesen der Datei und dem Übernehmen der Werte
+        stringProperty.set("changedLocally");
+        update.run();
+
+        assertEquals("changedLocally", stringProperty.get());
+        assertEquals(42, integerProperty.get());
+        assertTrue(observableProperties.hasUnsavedChanges());
+        observableProperties.save("comment");
+        assertEquals("changedLocally", loadProperties(file).getProperty("stringKey"));
+        assertEquals("42", loadProperties(file).getProperty("integerKey"));
+
+        observableProperties.disableHotReload();
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void hotReloadSurvivesInvalidFile() throws Exception {
+        final File file = copyTestProperties("hotreloadinvalidtest.bar");
+        observableProperties.load(file.getAbsolutePath());
+        final BlockingQueue<Runnable> fxQueue = new LinkedBlockingQueue<>();
+        observableProperties.enableHotReload(fxQueue::add);
+        final StringProperty stringProperty = observableProperties.stringProperty("stringKey", DEFAULT_STRING);
+
+        //Fehlerhaftes Unicode-Escape: Properties.load wirft eine IllegalArgumentException
+        Files.write(file.toPath(), "stringKey=\\uZZZZ\n".getBytes(StandardCharsets.ISO_8859_1));
+        assertNull(fxQueue.poll(1, TimeUnit.SECONDS));
+        assertTrue(observableProperties.isHotReloadEnabled());
+
+        Files.write(file.toPath(), "stringKey=valid\n".getBytes(StandardCharsets.ISO_8859_1));
+        final Runnable update = fxQueue.poll(10, TimeUnit.SECONDS);
+        assertNotNull(update);
+        update.run();
+        assertEquals("valid", stringProperty.get());
+
+        observableProperties.disableHotReload();
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    @Test
+    public void keysWithPrefix() throws Exception {
+        observableProperties.integerProperty("integerKeyNew", DEFAULT_INTEGER);
+        assertEquals(Arrays.asList("integerKey", "integerKeyEmpty", "integerKeyInvalid", "integerKeyNew"),
+                new ArrayList<>(observableProperties.keysWithPrefix("integerKey")));
+        assertTrue(observableProperties.keysWithPrefix("missing").isEmpty());
+
+        final SortedMap<String, DoubleProperty> doubleProperties = observableProperties.propertiesWithPrefix("doubleKey",
+                key -> observableProperties.doubleProperty(key, DEFAULT_DOUBLE));
+        assertEquals(4, doubleProperties.size());
+        assertEquals(1234.56, doubleProperties.get("doubleKey").get(), 0.0);
+        assertSame(doubleProperties.get("doubleKey"), observableProperties.doubleProperty("doubleKey", DEFAULT_DOUBLE));
+    }
+
+    @Test
+    public void removeWithPrefix() throws Exception {
+        final File file = copyTestProperties("removetest.bar");
+        observableProperties.load(file.getAbsolutePath());
+        final IntegerProperty integerProperty = observableProperties.integerProperty("integerKey", DEFAULT_INTEGER);
+        observableProperties.removeWithPrefix("integerKey");
+
+        assertEquals(DEFAULT_INTEGER, integerProperty.get());
+        assertFalse(observableProperties.contains("integerKeyInvalid"));
+        assertNotSame(integerProperty, observableProperties.integerProperty("integerKey", DEFAULT_INTEGER));
+        integerProperty.set(1);
+        observableProperties.save("comment");
+
+        final Properties saved = loadProperties(file);
+        assertEquals(String.valueOf(DEFAULT_INTEGER), saved.getProperty("integerKey"));
+        assertFalse(saved.containsKey("integerKeyEmpty"));
+        assertFalse(saved.containsKey("integerKeyInvalid"));
+        assertEquals("123456", saved.getProperty("longKey"));
+        if (!file.delete()) {
+            fail("Failed to delete file!");
+        }
+    }
+
+    private File copyTestProperties(final String fileName) throws Exception {
+        final File file = new File("src/test/resources/properties/" + fileName);
+        Files.copy(new File("src/test/resources/properties/testproperties.foo").toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private Properties loadProperties(final File file) throws Exception {
+        final Properties properties = new Properties();
+        try (final FileInputStream inputStream = new FileInputStream(file)) {
+            properties.load(inputStream);
+        }
+        return properties;
+    }
+
     private String getAbsoluteResourcePath(final String resourcePath) throws Exception {
         final File file = new File(getClass().getClassLoader().getResource(resourcePath).getFile());
         return file.getAbsolutePath();
@@ -210,4 +650,11 @@ public class ObservablePropertiesTest {
             return integer.equals(o.integer) && string.equals(o.string);
         }
     }
+
+    private static class SpecialTestObject extends TestObject {
+
+        private SpecialTestObject(Integer integer, String string) {
+            super(integer, string);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package de.pheru.fx.util.properties;
+
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.StringProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class PropertiesTransactionTest {
+
+    private static final ObservablePropertyKey<String> STRING_KEY = new ObservablePropertyKey<>("stringKey", "");
+    private static final ObservablePropertyKey<Integer> INTEGER_KEY = new ObservablePropertyKey<>("integerKey", 0);
+    private static final ObservablePropertyKey<Long> LONG_KEY = new ObservablePropertyKey<>("longKey", 0L);
+
+    private final File file = new File("src/test/resources/properties/transactiontest.bar");
+    private final AtomicInteger writes = new AtomicInteger();
+    private ObservableProperties observableProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        Files.copy(new File("src/test/resources/properties/testproperties.foo").toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        observableProperties = new ObservableProperties(new TextPropertiesStorage() {
+            @Override
+            public void write(final Path file, final Map<String, Object> values, final Collection<String> changedKeys,
+                              final String comments) throws IOException {
+                writes.incrementAndGet();
+                super.write(file, values, changedKeys, comments);
+            }
+        });
+        observableProperties.load(file.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        observableProperties.disableAutoSave();
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void commitAppliesAllValues() throws Exception {
+        final StringProperty stringProperty = observableProperties.stringProperty(STRING_KEY);
+        final AtomicInteger notifications = new AtomicInteger();
+        stringProperty.addListener(observable -> notifications.incrementAndGet());
+        final PropertiesTransaction transaction = observableProperties.beginTransaction();
+        transaction.set(STRING_KEY, "imported");
+        transaction.set(INTEGER_KEY, 42);
+        assertEquals("stringValue", stringProperty.get());
+        assertFalse(observableProperties.hasUnsavedChanges());
+
+        transaction.commit();
+        assertEquals("imported", stringProperty.get());
+        assertEquals(1, notifications.get());
+        assertEquals(42, observableProperties.integerProperty(INTEGER_KEY).get());
+        assertTrue(observableProperties.hasUnsavedChanges());
+    }
+
+    @Test
+    public void commitWritesOnceWithAutoSave() throws Exception {
+        final IntegerProperty integerProperty = observableProperties.integerProperty(INTEGER_KEY);
+        observableProperties.enableAutoSave("comment", 1, TimeUnit.HOURS);
+        final PropertiesTransaction transaction = observableProperties.beginTransaction();
+        transaction.set(STRING_KEY, "imported");
+        transaction.set(INTEGER_KEY, 42);
+        transaction.set(LONG_KEY, 7L);
+        transaction.commit();
+        observableProperties.flush();
+
+        assertEquals(42, integerProperty.get());
+        assertEquals(1, writes.get());
+        assertFalse(observableProperties.hasUnsavedChanges());
+    }
+
+    @Test
+    public void unconvertibleValueChangesNothing() throws Exception {
+        final PropertiesTransaction transaction = observableProperties.beginTransaction();
+        transaction.set(STRING_KEY, "imported");
+        transaction.set(new ObservablePropertyKey<>("objectKey", new Object()), new Object());
+        try {
+            transaction.commit();
+            fail("Exception expected!");
+        } catch (final IllegalStateException e) {
+            assertEquals("stringValue", observableProperties.stringProperty(STRING_KEY).get());
+            assertFalse(observableProperties.hasUnsavedChanges());
+        }
+    }
+
+    @Test
+    public void failedCommitRollsBack() throws Exception {
+        final StringProperty stringProperty = observableProperties.stringProperty(STRING_KEY);
+        final IntegerProperty integerProperty = observableProperties.integerProperty(INTEGER_KEY);
+        integerProperty.set(5);
+        final PropertiesTransaction transaction = observableProperties.beginTransaction();
+        transaction.set(STRING_KEY, "imported");
+        //Passt nicht zum Typ der bereits registrierten Property
+        transaction.set((ObservablePropertyKey) INTEGER_KEY, "noInteger");
+        try {
+            transaction.commit();
+            fail("Exception expected!");
+        } catch (final IllegalArgumentException e) {
+            assertEquals("stringValue", stringProperty.get());
+            assertEquals(5, integerProperty.get());
+            observableProperties.save("comment");
+            final String saved = new String(Files.readAllBytes(file.toPath()), "ISO-8859-1");
+            assertTrue(saved.contains("stringKey=stringValue"));
+            assertTrue(saved.contains("integerKey=5"));
+        }
+    }
+
+    @Test
+    public void boundPropertyRollsBack() throws Exception {
+        final StringProperty stringProperty = observableProperties.stringProperty(STRING_KEY);
+        final IntegerProperty integerProperty = observableProperties.integerProperty(INTEGER_KEY);
+        integerProperty.bind(new SimpleIntegerProperty(5));
+        final PropertiesTransaction transaction = observableProperties.beginTransaction();
+        transaction.set(STRING_KEY, "imported");
+        transaction.set(INTEGER_KEY, 42);
+        try {
+            transaction.commit();
+            fail("Exception expected!");
+        } catch (final RuntimeException e) {
+            assertEquals("stringValue", stringProperty.get());
+            assertEquals(5, integerProperty.get());
+            assertEquals(5, observableProperties.integerProperty(INTEGER_KEY).get());
+            integerProperty.unbind();
+            observableProperties.save("comment");
+            final String saved = new String(Files.readAllBytes(file.toPath()), "ISO-8859-1");
+            assertTrue(saved.contains("stringKey=stringValue"));
+            assertTrue(saved.contains("integerKey=5"));
+        }
+    }
+}
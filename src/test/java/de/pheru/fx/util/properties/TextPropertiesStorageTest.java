@@ -0,0 +1,96 @@
+package de.pheru.fx.util.properties;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class TextPropertiesStorageTest {
+
+    private final File file = new File("src/test/resources/properties/texttest.bar");
+    private final File link = new File("src/test/resources/properties/texttestlink.bar");
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(link.toPath());
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void writeKeepsPermissions() throws Exception {
+        Assume.assumeNotNull(Files.getFileAttributeView(file.toPath().getParent(), PosixFileAttributeView.class));
+        final Path path = Files.createFile(file.toPath());
+        Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rw-r--r--"));
+
+        new TextPropertiesStorage().write(path, Collections.singletonMap("key", "value"), Collections.singleton("key"), null);
+        assertEquals("rw-r--r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(path)));
+        assertTrue(new String(Files.readAllBytes(path), StandardCharsets.ISO_8859_1).contains("key=value"));
+    }
+
+    @Test
+    public void writeKeepsSymbolicLink() throws Exception {
+        Assume.assumeNotNull(Files.getFileAttributeView(file.toPath().getParent(), PosixFileAttributeView.class));
+        final Path target = Files.createFile(file.toPath());
+        final Path path = Files.createSymbolicLink(link.toPath(), target.getFileName());
+
+        new TextPropertiesStorage().write(path, Collections.singletonMap("key", "value"), Collections.singleton("key"), null);
+        assertTrue(Files.isSymbolicLink(path));
+        assertTrue(new String(Files.readAllBytes(target), StandardCharsets.ISO_8859_1).contains("key=value"));
+    }
+
+    @Test
+    public void writeLikePropertiesStore() throws Exception {
+        final Map<String, Object> values = new HashMap<>();
+        values.put("plain", "value");
+        values.put(" key with spaces ", " value with spaces ");
+        values.put("separators=:#!", "=:#!");
+        values.put("control", "\t\r\n\f\u0001");
+        values.put("umlaute", "äöü€");
+        values.put("backslash\\", "\\");
+        values.put("number", 1234);
+        values.put("", "");
+        final String comments = "first line\nsecond line\r\n#third line\r!fourth €";
+
+        new TextPropertiesStorage().write(file.toPath(), values, values.keySet(), comments);
+        final List<String> lines = Arrays.asList(
+                new String(Files.readAllBytes(file.toPath()), StandardCharsets.ISO_8859_1).split(System.lineSeparator()));
+
+        final Properties properties = new Properties();
+        for (final Map.Entry<String, Object> entry : values.entrySet()) {
+            properties.put(entry.getKey(), entry.getValue().toString());
+        }
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        properties.store(outputStream, comments);
+        final List<String> expectedLines = Arrays.asList(
+                new String(outputStream.toByteArray(), StandardCharsets.ISO_8859_1).split(System.lineSeparator()));
+
+        // Kommentare gleich, Datumszeile übersprungen, dieselben Einträge in alphabetischer Reihenfolge
+        final int commentLines = expectedLines.size() - values.size() - 1;
+        assertEquals(expectedLines.size(), lines.size());
+        assertEquals(expectedLines.subList(0, commentLines), lines.subList(0, commentLines));
+        final List<String> entryLines = lines.subList(commentLines + 1, lines.size());
+        assertEquals(new HashSet<>(expectedLines.subList(commentLines + 1, expectedLines.size())), new HashSet<>(entryLines));
+        final List<String> keys = new ArrayList<>();
+        for (final String line : entryLines) {
+            keys.add(keyOf(line));
+        }
+        assertEquals(new ArrayList<>(new TreeSet<>(values.keySet())), keys);
+    }
+
+    private String keyOf(final String line) throws Exception {
+        final Properties properties = new Properties();
+        properties.load(new StringReader(line));
+        return properties.stringPropertyNames().iterator().next();
+    }
+}
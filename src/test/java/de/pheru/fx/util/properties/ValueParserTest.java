@@ -0,0 +1,71 @@
+package de.pheru.fx.util.properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ValueParserTest {
+
+    private static final String[] INPUTS = {
+            "", " ", "0", "-0", "+0", "1234", "-1234", "+", "-", "12a", "a12", " 12", "12 ",
+            "2147483647", "2147483648", "-2147483648", "-2147483649",
+            "9223372036854775807", "9223372036854775808", "-9223372036854775808", "-9223372036854775809",
+            "12.34", ".5", "5.", ".", "1e10", "1E-5", "1e", "1e+", "-1.5e+3f", "1.5d", "1.5x", " 1.5 ",
+            "NaN", "-NaN", "Infinity", "-Infinity", "Inf", "NaNx", "0x1p3", "0x1.8P-1", "0x1", "0x", "0xp1",
+            "true", "TRUE", "yes", "Invalid", "١٢٣"
+    };
+
+    @Test
+    public void parseLikeJdk() {
+        for (final String input : INPUTS) {
+            assertEquals(input, jdkInt(input), ValueParser.parseInt(input, -42));
+            assertEquals(input, jdkLong(input), ValueParser.parseLong(input, -42L));
+            assertEquals(input, jdkFloat(input), ValueParser.parseFloat(input, -42F), 0.0F);
+            assertEquals(input, jdkDouble(input), ValueParser.parseDouble(input, -42.0), 0.0);
+            assertEquals(input, Boolean.parseBoolean(input), ValueParser.parseBoolean(input, false));
+        }
+    }
+
+    @Test
+    public void typedAndMissingValues() {
+        assertEquals(7, ValueParser.parseInt(7, -42));
+        assertEquals(7L, ValueParser.parseLong(7, -42L));
+        assertEquals(12.34, ValueParser.parseDouble(12.34F, -42.0), 0.0);
+        assertTrue(ValueParser.parseBoolean(Boolean.TRUE, false));
+        assertEquals(-42, ValueParser.parseInt(null, -42));
+        assertEquals(-42.0, ValueParser.parseDouble(null, -42.0), 0.0);
+        assertTrue(ValueParser.parseBoolean(null, true));
+    }
+
+    private static int jdkInt(final String input) {
+        try {
+            return Integer.parseInt(input);
+        } catch (final NumberFormatException e) {
+            return -42;
+        }
+    }
+
+    private static long jdkLong(final String input) {
+        try {
+            return Long.parseLong(input);
+        } catch (final NumberFormatException e) {
+            return -42L;
+        }
+    }
+
+    private static float jdkFloat(final String input) {
+        try {
+            return Float.parseFloat(input);
+        } catch (final NumberFormatException e) {
+            return -42F;
+        }
+    }
+
+    private static double jdkDouble(final String input) {
+        try {
+            return Double.parseDouble(input);
+        } catch (final NumberFormatException e) {
+            return -42.0;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package de.pheru.fx.util.properties;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.beans.property.SimpleIntegerProperty;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class WeakObservablePropertiesTest {
+
+    private final File file = new File("src/test/resources/properties/weaktest.bar");
+    private WeakObservableProperties observableProperties;
+
+    @Before
+    public void setUp() throws Exception {
+        Files.copy(new File("src/test/resources/properties/testproperties.foo").toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        observableProperties = new WeakObservableProperties();
+        observableProperties.load(file.getAbsolutePath());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        Files.deleteIfExists(file.toPath());
+    }
+
+    @Test
+    public void collectedPropertyKeepsLatestValue() throws Exception {
+        final WeakReference<IntegerProperty> reference = setAndForget("integerKey", 4321);
+        awaitCollection(reference);
+
+        final IntegerProperty recreated = observableProperties.integerProperty("integerKey", 0);
+        assertEquals(4321, recreated.get());
+        assertTrue(observableProperties.hasUnsavedChanges());
+
+        observableProperties.save("comment");
+        final Properties saved = new Properties();
+        try (final FileInputStream inputStream = new FileInputStream(file)) {
+            saved.load(inputStream);
+        }
+        assertEquals("4321", saved.getProperty("integerKey"));
+    }
+
+    @Test
+    public void boundPropertyIsKept() throws Exception {
+        final IntegerProperty target = new SimpleIntegerProperty();
+        target.bind(observableProperties.integerProperty("integerKey", 0));
+        System.gc();
+
+        //Nur die gebundene Property wirkt sich auf das Ziel aus
+        final IntegerProperty property = observableProperties.integerProperty("integerKey", 0);
+        property.set(99);
+        assertEquals(99, target.get());
+    }
+
+    @Test
+    public void propertyBoundToSourceIsKept() throws Exception {
+        final DoubleProperty source = new SimpleDoubleProperty(10);
+        final WeakReference<DoubleProperty> reference = bindAndForget("doubleKey", source);
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNotNull(reference.get());
+
+        source.set(42.5);
+        observableProperties.save("comment");
+        final Properties saved = new Properties();
+        try (final FileInputStream inputStream = new FileInputStream(file)) {
+            saved.load(inputStream);
+        }
+        assertEquals("42.5", saved.getProperty("doubleKey"));
+        assertEquals(42.5, observableProperties.doubleProperty("doubleKey", 0).get(), 0.0);
+    }
+
+    @Test
+    public void unboundPropertyCanBeCollected() throws Exception {
+        final DoubleProperty source = new SimpleDoubleProperty(10);
+        final WeakReference<DoubleProperty> reference = bindAndForget("doubleKey", source);
+        reference.get().unbind();
+        //Die nächste Änderung der Property gibt sie frei
+        reference.get().set(11);
+        awaitCollection(reference);
+    }
+
+    @Test
+    public void unboundUnchangedPropertyIsReleasedByLaterBinds() throws Exception {
+        final DoubleProperty source = new SimpleDoubleProperty(10);
+        final WeakReference<DoubleProperty> reference = bindAndForget("doubleKey", source);
+        reference.get().unbind();
+        for (int i = 0; i < 16; i++) {
+            bindAndForget("doubleKey" + i, source);
+        }
+        awaitCollection(reference);
+    }
+
+    @Test
+    public void parsedValueReplacesLoadedString() throws Exception {
+        assertEquals("1234", observableProperties.getStoredValue("integerKey"));
+        observableProperties.integerProperty("integerKey", 0);
+        assertEquals(1234, observableProperties.getStoredValue("integerKey"));
+        assertFalse(observableProperties.hasUnsavedChanges());
+    }
+
+    private WeakReference<IntegerProperty> setAndForget(final String key, final int value) {
+        final IntegerProperty property = observableProperties.integerProperty(key, 0);
+        property.set(value);
+        return new WeakReference<>(property);
+    }
+
+    private WeakReference<DoubleProperty> bindAndForget(final String key, final DoubleProperty source) {
+        final DoubleProperty property = observableProperties.doubleProperty(key, 0);
+        property.bind(source);
+        return new WeakReference<>(property);
+    }
+
+    private void awaitCollection(final WeakReference<?> reference) throws Exception {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(reference.get());
+    }
+}